@@ -0,0 +1,14 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+/**
+ * Generates the arguments of each request sent by a {@link LoadGenerator}
+ */
+@FunctionalInterface
+public interface ArgumentGenerator {
+
+	/**
+	 * @param sequence index of the request in the run, starting from zero
+	 * @return the arguments of the service method call
+	 */
+	Object[] arguments(long sequence);
+}
@@ -0,0 +1,15 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import io.reactivex.rxjava3.core.Single;
+import it.cavallium.vertx.rpcservice.ServiceClass;
+import it.cavallium.vertx.rpcservice.ServiceMethod;
+
+/**
+ * Sample service driven by {@link LoadTestMain}
+ */
+@ServiceClass
+public interface EchoService {
+
+	@ServiceMethod
+	Single<String> echo(String payload);
+}
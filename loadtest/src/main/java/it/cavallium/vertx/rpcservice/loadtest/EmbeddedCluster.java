@@ -0,0 +1,45 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.spi.cluster.hazelcast.ConfigUtil;
+import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+import it.cavallium.vertx.rpcservice.RxCloseable;
+import java.util.List;
+
+/**
+ * Clustered Vert.x nodes running in the same process, to send the requests through the clustered event bus and the
+ * wire codecs
+ */
+public record EmbeddedCluster(List<Vertx> nodes) implements RxCloseable {
+
+	private static final String HOST = "127.0.0.1";
+
+	public static Single<EmbeddedCluster> start(int nodeCount) {
+		return Flowable.range(0, nodeCount)
+			.concatMapSingle(i -> startNode())
+			.toList()
+			.map(EmbeddedCluster::new);
+	}
+
+	private static Single<Vertx> startNode() {
+		var config = ConfigUtil.loadConfig();
+		var join = config.getNetworkConfig().getJoin();
+		join.getMulticastConfig().setEnabled(false);
+		join.getTcpIpConfig().setEnabled(true).addMember(HOST);
+		config.getNetworkConfig().getInterfaces().setEnabled(true).addInterface(HOST);
+		return Vertx.builder()
+			.with(new VertxOptions().setEventBusOptions(new EventBusOptions().setHost(HOST)))
+			.withClusterManager(new HazelcastClusterManager(config))
+			.rxBuildClustered();
+	}
+
+	@Override
+	public Completable rxClose() {
+		return Flowable.fromIterable(nodes).concatMapCompletable(Vertx::close);
+	}
+}
@@ -0,0 +1,316 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleEmitter;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.rxjava3.core.Vertx;
+import it.cavallium.vertx.rpcservice.ServiceClient;
+import it.cavallium.vertx.rpcservice.ServiceMethod;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.HdrHistogram.Histogram;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Open-loop load generator for a service.
+ * <p>
+ * Requests are sent at a fixed rate, independently of the response times. Each latency is measured from the time when
+ * the request should have been sent, so requests delayed by the concurrency limit or by a saturated event loop are
+ * counted, without coordinated omission.
+ */
+public class LoadGenerator<T> {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+	private static final int SIGNIFICANT_DIGITS = 3;
+	private static final long TICK_MILLIS = 1;
+
+	private final Vertx vertx;
+	private final T client;
+	private final Map<String, Method> methods;
+
+	public LoadGenerator(Vertx vertx, Class<T> serviceClass) {
+		this(vertx, serviceClass, false);
+	}
+
+	public LoadGenerator(Vertx vertx, Class<T> serviceClass, boolean localOnly) {
+		this.vertx = vertx;
+		this.client = new ServiceClient<>(vertx, serviceClass, localOnly).getInstance();
+		this.methods = Arrays.stream(serviceClass.getDeclaredMethods())
+			.filter(method -> method.isAnnotationPresent(ServiceMethod.class))
+			.collect(Collectors.toMap(Method::getName, Function.identity(), (a, b) -> {
+				throw new UnsupportedOperationException("Overloaded method \"" + a.getName() + "\" is not supported");
+			}));
+	}
+
+	public Single<LoadReport> run(String methodName, ArgumentGenerator arguments, LoadProfile profile) {
+		return run(methodName, arguments, profile, report -> {});
+	}
+
+	/**
+	 * @param intervalReports receives a partial report every {@link LoadProfile#reportInterval()}
+	 */
+	public Single<LoadReport> run(String methodName,
+			ArgumentGenerator arguments,
+			LoadProfile profile,
+			Consumer<LoadReport> intervalReports) {
+		var method = getMethod(methodName);
+		return Single.create(emitter -> {
+			var context = vertx.getOrCreateContext();
+			var run = new Run(method, arguments, profile, intervalReports, emitter);
+			emitter.setCancellable(() -> context.runOnContext(v -> run.stop()));
+			context.runOnContext(v -> run.start());
+		});
+	}
+
+	/**
+	 * Run the profile at increasing rates, until the p99 latency breaks the SLO
+	 *
+	 * @param profile        profile of each step, starting from its rate
+	 * @param rateMultiplier rate increase between steps
+	 * @param maxRate        maximum rate to test
+	 */
+	public Single<SloReport> findSloBreakingRate(String methodName,
+			ArgumentGenerator arguments,
+			LoadProfile profile,
+			Duration p99Slo,
+			double rateMultiplier,
+			double maxRate) {
+		if (rateMultiplier <= 1) {
+			throw new IllegalArgumentException("Rate multiplier must be greater than 1, got " + rateMultiplier);
+		}
+		return findSloBreakingRate(methodName, arguments, profile, p99Slo, rateMultiplier, maxRate, null, List.of());
+	}
+
+	private Single<SloReport> findSloBreakingRate(String methodName,
+			ArgumentGenerator arguments,
+			LoadProfile profile,
+			Duration p99Slo,
+			double rateMultiplier,
+			double maxRate,
+			@Nullable Double maxGoodRate,
+			List<LoadReport> steps) {
+		return run(methodName, arguments, profile).flatMap(report -> {
+			var newSteps = new ArrayList<>(steps);
+			newSteps.add(report);
+			var rate = profile.rate();
+			if (report.percentile(99).compareTo(p99Slo) > 0) {
+				return Single.just(new SloReport(p99Slo, maxGoodRate, rate, List.copyOf(newSteps)));
+			}
+			var nextRate = rate * rateMultiplier;
+			if (nextRate > maxRate) {
+				return Single.just(new SloReport(p99Slo, rate, null, List.copyOf(newSteps)));
+			}
+			return findSloBreakingRate(methodName,
+				arguments,
+				profile.withRate(nextRate),
+				p99Slo,
+				rateMultiplier,
+				maxRate,
+				rate,
+				newSteps
+			);
+		});
+	}
+
+	private Method getMethod(String methodName) {
+		var method = methods.get(methodName);
+		if (method == null) {
+			throw new IllegalArgumentException("Method \"" + methodName + "\" is not a @ServiceMethod");
+		}
+		return method;
+	}
+
+	private Completable invoke(Method method, Object[] args) throws Throwable {
+		Object result;
+		try {
+			result = method.invoke(client, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+		if (result instanceof Single<?> single) {
+			return single.ignoreElement();
+		} else if (result instanceof Maybe<?> maybe) {
+			return maybe.ignoreElement();
+		} else {
+			return (Completable) result;
+		}
+	}
+
+	/**
+	 * State of a single run, accessed only from the context where it started
+	 */
+	private class Run {
+
+		private final Method method;
+		private final ArgumentGenerator arguments;
+		private final LoadProfile profile;
+		private final Consumer<LoadReport> intervalReports;
+		private final SingleEmitter<LoadReport> emitter;
+		private final double intervalNanos;
+		private final long totalRequests;
+		private final Histogram totalLatency = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+		private final Histogram intervalLatency = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+		private long startNanos;
+		private long warmupEndNanos;
+		private long intervalStartNanos;
+		private long tickTimerId;
+		private long reportTimerId;
+		private long sent;
+		private long due;
+		private int inFlight;
+		private boolean terminated;
+
+		private long succeeded, failed, timedOut, maxBacklog;
+		private long intervalSucceeded, intervalFailed, intervalTimedOut, intervalMaxBacklog;
+
+		private Run(Method method,
+				ArgumentGenerator arguments,
+				LoadProfile profile,
+				Consumer<LoadReport> intervalReports,
+				SingleEmitter<LoadReport> emitter) {
+			this.method = method;
+			this.arguments = arguments;
+			this.profile = profile;
+			this.intervalReports = intervalReports;
+			this.emitter = emitter;
+			this.intervalNanos = 1_000_000_000d / profile.rate();
+			this.totalRequests = profile.totalRequests();
+		}
+
+		private void start() {
+			if (terminated) {
+				return;
+			}
+			this.startNanos = System.nanoTime();
+			this.warmupEndNanos = startNanos + profile.warmup().toNanos();
+			this.intervalStartNanos = warmupEndNanos;
+			this.tickTimerId = vertx.setPeriodic(TICK_MILLIS, id -> tick());
+			this.reportTimerId = vertx.setPeriodic(profile.warmup().toMillis() + profile.reportInterval().toMillis(),
+				profile.reportInterval().toMillis(),
+				id -> reportInterval(System.nanoTime())
+			);
+			tick();
+		}
+
+		private void tick() {
+			long elapsedNanos = System.nanoTime() - startNanos;
+			this.due = Math.min(totalRequests, (long) (elapsedNanos / intervalNanos) + 1);
+			drain();
+		}
+
+		private void drain() {
+			while (!terminated && sent < due && inFlight < profile.maxConcurrency()) {
+				send(sent++);
+			}
+			long backlog = due - sent;
+			this.maxBacklog = Math.max(maxBacklog, backlog);
+			this.intervalMaxBacklog = Math.max(intervalMaxBacklog, backlog);
+			if (!terminated && sent == totalRequests && inFlight == 0) {
+				finish();
+			}
+		}
+
+		private void send(long sequence) {
+			long intendedNanos = startNanos + (long) (sequence * intervalNanos);
+			Completable request;
+			try {
+				request = invoke(method, arguments.arguments(sequence));
+			} catch (Throwable e) {
+				stop();
+				emitter.tryOnError(e);
+				return;
+			}
+			inFlight++;
+			request.subscribe(() -> {
+				if (record(intendedNanos)) {
+					succeeded++;
+					intervalSucceeded++;
+				}
+				onRequestEnd();
+			}, err -> {
+				if (record(intendedNanos)) {
+					if (err instanceof ReplyException replyException && replyException.failureType() == ReplyFailure.TIMEOUT) {
+						timedOut++;
+						intervalTimedOut++;
+					} else {
+						failed++;
+						intervalFailed++;
+					}
+				}
+				onRequestEnd();
+			});
+		}
+
+		/**
+		 * @return true if the request is not part of the warmup
+		 */
+		private boolean record(long intendedNanos) {
+			if (intendedNanos < warmupEndNanos) {
+				return false;
+			}
+			long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+			intervalLatency.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+			return true;
+		}
+
+		private void onRequestEnd() {
+			inFlight--;
+			drain();
+		}
+
+		private LoadReport reportInterval(long nowNanos) {
+			var report = new LoadReport(profile.rate(),
+				intervalSucceeded,
+				intervalFailed,
+				intervalTimedOut,
+				intervalMaxBacklog,
+				Duration.ofNanos(nowNanos - intervalStartNanos),
+				intervalLatency.copy()
+			);
+			totalLatency.add(intervalLatency);
+			intervalLatency.reset();
+			this.intervalSucceeded = 0;
+			this.intervalFailed = 0;
+			this.intervalTimedOut = 0;
+			this.intervalMaxBacklog = 0;
+			this.intervalStartNanos = nowNanos;
+			intervalReports.accept(report);
+			return report;
+		}
+
+		private void finish() {
+			long nowNanos = System.nanoTime();
+			reportInterval(nowNanos);
+			stop();
+			emitter.onSuccess(new LoadReport(profile.rate(),
+				succeeded,
+				failed,
+				timedOut,
+				maxBacklog,
+				Duration.ofNanos(nowNanos - warmupEndNanos),
+				totalLatency
+			));
+		}
+
+		private void stop() {
+			if (!terminated) {
+				this.terminated = true;
+				vertx.cancelTimer(tickTimerId);
+				vertx.cancelTimer(reportTimerId);
+			}
+		}
+	}
+}
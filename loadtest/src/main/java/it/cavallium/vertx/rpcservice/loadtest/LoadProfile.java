@@ -0,0 +1,37 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import java.time.Duration;
+
+/**
+ * @param rate           requests per second, sent at a fixed rate regardless of the response times
+ * @param duration       total duration of the run, including the warmup
+ * @param warmup         initial part of the run whose latencies are not recorded
+ * @param maxConcurrency maximum number of requests in flight, further requests wait for a free slot, and their wait is
+ *                       counted in their latency
+ * @param reportInterval interval between the partial reports of long (soak) runs
+ */
+public record LoadProfile(double rate, Duration duration, Duration warmup, int maxConcurrency, Duration reportInterval) {
+
+	public LoadProfile {
+		if (rate <= 0) {
+			throw new IllegalArgumentException("Rate must be positive, got " + rate);
+		}
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Max concurrency must be positive, got " + maxConcurrency);
+		}
+		if (reportInterval.isNegative() || reportInterval.isZero()) {
+			throw new IllegalArgumentException("Report interval must be positive, got " + reportInterval);
+		}
+		if (warmup.compareTo(duration) >= 0) {
+			throw new IllegalArgumentException("Warmup must be shorter than the duration");
+		}
+	}
+
+	public LoadProfile withRate(double rate) {
+		return new LoadProfile(rate, duration, warmup, maxConcurrency, reportInterval);
+	}
+
+	long totalRequests() {
+		return (long) Math.ceil(rate * duration.toNanos() / 1_000_000_000d);
+	}
+}
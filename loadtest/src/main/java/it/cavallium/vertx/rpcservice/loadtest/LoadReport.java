@@ -0,0 +1,46 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import java.time.Duration;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Result of a run, or of an interval of a run
+ *
+ * @param targetRate requests per second that should have been sent
+ * @param succeeded  recorded requests that succeeded
+ * @param failed     recorded requests that failed, excluding timeouts
+ * @param timedOut   recorded requests that timed out
+ * @param maxBacklog maximum number of requests that were waiting for a free concurrency slot
+ * @param elapsed    measured time
+ * @param latency    latencies in microseconds, measured from the time when each request should have been sent
+ */
+public record LoadReport(double targetRate, long succeeded, long failed, long timedOut, long maxBacklog,
+		Duration elapsed, Histogram latency) {
+
+	private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99, 100};
+
+	public long completed() {
+		return succeeded + failed + timedOut;
+	}
+
+	/**
+	 * @return completed requests per second
+	 */
+	public double throughput() {
+		return completed() * 1_000_000_000d / Math.max(1, elapsed.toNanos());
+	}
+
+	public Duration percentile(double percentile) {
+		return Duration.ofNanos(latency.getValueAtPercentile(percentile) * 1000L);
+	}
+
+	public String format() {
+		var sb = new StringBuilder();
+		sb.append(String.format("target %.1f req/s, throughput %.1f req/s, ok %d, failed %d, timed out %d, max backlog %d%n",
+				targetRate, throughput(), succeeded, failed, timedOut, maxBacklog));
+		for (double percentile : PERCENTILES) {
+			sb.append(String.format("  p%-6s %10.3f ms%n", percentile, latency.getValueAtPercentile(percentile) / 1000d));
+		}
+		return sb.toString();
+	}
+}
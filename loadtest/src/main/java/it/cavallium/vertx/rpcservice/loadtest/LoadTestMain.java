@@ -0,0 +1,96 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.rxjava3.core.Vertx;
+import it.cavallium.vertx.rpcservice.ServiceServer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Drives {@link EchoService} with a {@link LoadGenerator}.
+ * <p>
+ * Options, in the form {@code --name=value}:
+ * <ul>
+ *   <li>{@code rate}: requests per second (default 1000)</li>
+ *   <li>{@code duration}: seconds, including the warmup (default 30)</li>
+ *   <li>{@code warmup}: seconds (default 5)</li>
+ *   <li>{@code concurrency}: maximum requests in flight (default 256)</li>
+ *   <li>{@code report-interval}: seconds between partial reports (default 10)</li>
+ *   <li>{@code payload-bytes}: size of the echoed string (default 128)</li>
+ *   <li>{@code cluster}: run server and client on two embedded clustered nodes (default false)</li>
+ *   <li>{@code slo-ms}: p99 SLO; when set, the rate is increased until the SLO is broken</li>
+ *   <li>{@code rate-multiplier}: rate increase between SLO steps (default 1.5)</li>
+ *   <li>{@code max-rate}: maximum rate of the SLO steps (default 1000000)</li>
+ * </ul>
+ */
+public class LoadTestMain {
+
+	public static void main(String[] args) {
+		var options = parseOptions(args);
+		var profile = new LoadProfile(Double.parseDouble(options.getOrDefault("rate", "1000")),
+			Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))),
+			Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5"))),
+			Integer.parseInt(options.getOrDefault("concurrency", "256")),
+			Duration.ofSeconds(Long.parseLong(options.getOrDefault("report-interval", "10")))
+		);
+		var payload = "x".repeat(Integer.parseInt(options.getOrDefault("payload-bytes", "128")));
+		ArgumentGenerator arguments = sequence -> new Object[]{payload};
+		var clustered = Boolean.parseBoolean(options.getOrDefault("cluster", "false"));
+
+		EmbeddedCluster cluster;
+		Vertx serverVertx;
+		Vertx clientVertx;
+		if (clustered) {
+			cluster = EmbeddedCluster.start(2).blockingGet();
+			serverVertx = cluster.nodes().get(0);
+			clientVertx = cluster.nodes().get(1);
+		} else {
+			cluster = null;
+			serverVertx = clientVertx = Vertx.vertx();
+		}
+
+		var server = new ServiceServer<>(serverVertx, (EchoService) Single::just, EchoService.class, !clustered);
+		try {
+			var generator = new LoadGenerator<>(clientVertx, EchoService.class, !clustered);
+			if (options.containsKey("slo-ms")) {
+				var sloReport = generator.findSloBreakingRate("echo",
+					arguments,
+					profile,
+					Duration.ofNanos((long) (Double.parseDouble(options.get("slo-ms")) * 1_000_000)),
+					Double.parseDouble(options.getOrDefault("rate-multiplier", "1.5")),
+					Double.parseDouble(options.getOrDefault("max-rate", "1000000"))
+				).blockingGet();
+				System.out.print(sloReport.format());
+			} else {
+				var report = generator
+					.run("echo", arguments, profile, interval -> System.out.print("[interval] " + interval.format()))
+					.blockingGet();
+				System.out.print("[total] " + report.format());
+			}
+		} finally {
+			server.rxClose().blockingAwait();
+			if (cluster != null) {
+				cluster.rxClose().blockingAwait();
+			} else {
+				serverVertx.close().blockingAwait();
+			}
+		}
+	}
+
+	private static Map<String, String> parseOptions(String[] args) {
+		var options = new HashMap<String, String>();
+		for (String arg : args) {
+			if (!arg.startsWith("--")) {
+				throw new IllegalArgumentException("Invalid option \"" + arg + "\", expected --name=value");
+			}
+			var separator = arg.indexOf('=');
+			if (separator == -1) {
+				options.put(arg.substring(2), "true");
+			} else {
+				options.put(arg.substring(2, separator), arg.substring(separator + 1));
+			}
+		}
+		return options;
+	}
+}
@@ -0,0 +1,32 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * @param p99Slo       maximum p99 latency
+ * @param maxGoodRate  highest rate whose p99 met the SLO, null if no rate met it
+ * @param breakingRate lowest rate whose p99 broke the SLO, null if the SLO was met up to the maximum rate
+ * @param steps        reports of each tested rate, in order
+ */
+public record SloReport(Duration p99Slo, @Nullable Double maxGoodRate, @Nullable Double breakingRate,
+		List<LoadReport> steps) {
+
+	public String format() {
+		var sb = new StringBuilder();
+		for (LoadReport step : steps) {
+			sb.append(step.format());
+		}
+		sb.append(String.format("p99 SLO %.3f ms: ", p99Slo.toNanos() / 1_000_000d));
+		if (maxGoodRate != null) {
+			sb.append(String.format("met up to %.1f req/s", maxGoodRate));
+		} else {
+			sb.append("never met");
+		}
+		if (breakingRate != null) {
+			sb.append(String.format(", broken at %.1f req/s", breakingRate));
+		}
+		return sb.append(System.lineSeparator()).toString();
+	}
+}
@@ -0,0 +1,15 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import io.reactivex.rxjava3.core.Completable;
+import it.cavallium.vertx.rpcservice.ServiceClass;
+import it.cavallium.vertx.rpcservice.ServiceMethod;
+
+/**
+ * Service with a fixed response time, used in tests
+ */
+@ServiceClass
+public interface SleepService {
+
+	@ServiceMethod
+	Completable sleep(int millis);
+}
@@ -0,0 +1,94 @@
+package it.cavallium.vertx.rpcservice.loadtest;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.vertx.rxjava3.core.Vertx;
+import it.cavallium.vertx.rpcservice.ServiceServer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestLoadGenerator {
+
+	private static final int SLEEP_MILLIS = 10;
+	private static final ArgumentGenerator SLEEP_ARGUMENTS = sequence -> new Object[]{SLEEP_MILLIS};
+
+	private Vertx vertx;
+	private ServiceServer<SleepService> server;
+	private LoadGenerator<SleepService> generator;
+
+	@BeforeEach
+	public void setUp() {
+		vertx = Vertx.vertx();
+		server = new ServiceServer<>(vertx,
+			(SleepService) millis -> Completable.timer(millis, TimeUnit.MILLISECONDS),
+			SleepService.class,
+			true
+		);
+		generator = new LoadGenerator<>(vertx, SleepService.class, true);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		server.rxClose().andThen(vertx.close()).blockingAwait();
+	}
+
+	private static LoadProfile profile(double rate, Duration duration, int maxConcurrency) {
+		return new LoadProfile(rate, duration, Duration.ZERO, maxConcurrency, Duration.ofSeconds(10));
+	}
+
+	@Test
+	public void testLatencyFromIntendedTime() {
+		// 100 requests are due in 500ms, but one at a time they take at least 1s
+		var report = generator.run("sleep", SLEEP_ARGUMENTS, profile(200, Duration.ofMillis(500), 1)).blockingGet();
+		Assertions.assertEquals(100, report.succeeded());
+		Assertions.assertEquals(0, report.failed() + report.timedOut());
+		Assertions.assertTrue(report.maxBacklog() > 0);
+		// The last request waited for the other 99 requests, after the time when it should have been sent
+		Assertions.assertTrue(report.percentile(100).compareTo(Duration.ofMillis(99 * SLEEP_MILLIS - 500)) >= 0,
+			"max latency " + report.percentile(100));
+		Assertions.assertTrue(report.percentile(50).compareTo(Duration.ofMillis(49 * SLEEP_MILLIS - 250)) >= 0,
+			"median latency " + report.percentile(50));
+	}
+
+	@Test
+	public void testLatencyWithoutQueueing() {
+		var report = generator.run("sleep", SLEEP_ARGUMENTS, profile(20, Duration.ofMillis(500), 16)).blockingGet();
+		Assertions.assertEquals(10, report.succeeded());
+		Assertions.assertTrue(report.percentile(0).compareTo(Duration.ofMillis(SLEEP_MILLIS)) >= 0);
+		Assertions.assertTrue(report.percentile(100).compareTo(Duration.ofMillis(SLEEP_MILLIS * 20)) < 0,
+			"max latency " + report.percentile(100));
+	}
+
+	@Test
+	public void testSloBreakingRate() {
+		// One request at a time, the server can handle less than 100 requests per second
+		var sloReport = generator.findSloBreakingRate("sleep",
+			SLEEP_ARGUMENTS,
+			profile(10, Duration.ofSeconds(1), 1),
+			Duration.ofMillis(200),
+			4,
+			1000
+		).blockingGet();
+		Assertions.assertEquals(List.of(10d, 40d, 160d), sloReport.steps().stream().map(LoadReport::targetRate).toList());
+		Assertions.assertEquals(40d, sloReport.maxGoodRate());
+		Assertions.assertEquals(160d, sloReport.breakingRate());
+	}
+
+	@Test
+	public void testSloMetUpToMaxRate() {
+		var sloReport = generator.findSloBreakingRate("sleep",
+			SLEEP_ARGUMENTS,
+			profile(10, Duration.ofMillis(500), 16),
+			Duration.ofSeconds(10),
+			2,
+			30
+		).blockingGet();
+		Assertions.assertEquals(List.of(10d, 20d), sloReport.steps().stream().map(LoadReport::targetRate).toList());
+		Assertions.assertEquals(20d, sloReport.maxGoodRate());
+		Assertions.assertNull(sloReport.breakingRate());
+	}
+}
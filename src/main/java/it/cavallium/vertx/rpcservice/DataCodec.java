@@ -1,17 +1,156 @@
 package it.cavallium.vertx.rpcservice;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.internal.buffer.BufferInternal;
+import io.vertx.core.json.EncodeException;
 import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+import io.vertx.core.json.jackson.HybridJacksonPool;
+import io.vertx.core.json.jackson.JacksonCodec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public record DataCodec<T>(MessageCodec<T, T> codec) {
 
 	public static final class DataMessageCodec implements MessageCodec<Object, Object> {
+
+		private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+			.recyclerPool(HybridJacksonPool.getInstance())
+			.build();
+		private static final Encoder ENCODER = getEncoder();
+
 		private int pos2;
 
+		/**
+		 * Encoder matching the global {@link Json#CODEC}
+		 */
+		private enum Encoder {
+			/**
+			 * Jackson streaming, without databind
+			 */
+			JACKSON,
+			/**
+			 * Jackson databind, for POJO support
+			 */
+			DATABIND,
+			/**
+			 * A custom codec, that can only encode into its own buffer
+			 */
+			CODEC
+		}
+
+		private static Encoder getEncoder() {
+			var codec = Json.CODEC;
+			if (codec.getClass() == JacksonCodec.class) {
+				return Encoder.JACKSON;
+			}
+			try {
+				if (codec instanceof DatabindCodec) {
+					return Encoder.DATABIND;
+				}
+			} catch (LinkageError ignored) {
+				// jackson-databind is not available
+			}
+			return Encoder.CODEC;
+		}
+
+		/**
+		 * Mapper of {@link Encoder#DATABIND} that sorts the keys of maps, loaded only when it's used
+		 */
+		private static final class CanonicalMapper {
+
+			private static final ObjectMapper MAPPER = DatabindCodec.mapper()
+				.copy()
+				.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+		}
+
+		/**
+		 * Encode a length-prefixed value, streaming it directly into the outbound buffer
+		 */
 		@Override
 		public void encodeToWire(Buffer buffer, Object o) {
-			Json.encodeToBuffer(o).writeToBuffer(buffer);
+			encodeToWire(buffer, o, false);
+		}
+
+		/**
+		 * Encode a length-prefixed value like {@link #encodeToWire(Buffer, Object)}, but with the keys of its maps and
+		 * JSON objects sorted, so that equal values always have the same encoding
+		 */
+		void encodeCanonicalToWire(Buffer buffer, Object o) {
+			encodeToWire(buffer, sortKeys(o), true);
+		}
+
+		private void encodeToWire(Buffer buffer, Object o, boolean canonical) {
+			int lengthIndex = buffer.length();
+			buffer.appendInt(0);
+			try {
+				switch (ENCODER) {
+					case JACKSON -> {
+						try (JsonGenerator generator = JSON_FACTORY.createGenerator(new BufferOutputStream(buffer))) {
+							JacksonCodec.encodeJson(o, generator);
+						}
+					}
+					case DATABIND -> {
+						// Maps can also be nested in objects that only databind knows how to encode
+						var mapper = canonical ? CanonicalMapper.MAPPER : DatabindCodec.mapper();
+						try (JsonGenerator generator = mapper.createGenerator(new BufferOutputStream(buffer))) {
+							mapper.writeValue(generator, o);
+						}
+					}
+					case CODEC -> buffer.appendBuffer(Json.CODEC.toBuffer(o, false));
+				}
+			} catch (IOException e) {
+				throw new EncodeException(e.getMessage(), e);
+			}
+			buffer.setInt(lengthIndex, buffer.length() - lengthIndex - 4);
+		}
+
+		/**
+		 * @return the value with its maps and JSON objects, also nested in lists, copied into sorted maps
+		 */
+		private static Object sortKeys(Object o) {
+			if (o instanceof JsonObject jsonObject) {
+				return sortKeys(jsonObject.getMap());
+			} else if (o instanceof Map<?, ?> map) {
+				var sorted = new TreeMap<String, Object>();
+				map.forEach((key, value) -> sorted.put(String.valueOf(key), sortKeys(value)));
+				return sorted;
+			} else if (o instanceof JsonArray jsonArray) {
+				return sortKeys(jsonArray.getList());
+			} else if (o instanceof List<?> list) {
+				var sorted = new ArrayList<>(list.size());
+				for (Object element : list) {
+					sorted.add(sortKeys(element));
+				}
+				return sorted;
+			} else {
+				return o;
+			}
+		}
+
+		/**
+		 * Pre-size the outbound buffer for a message of the estimated size, so that it's not grown repeatedly while the
+		 * encoder streams into it
+		 */
+		static void ensureWritable(Buffer buffer, EncodedSizeEstimator sizeEstimator) {
+			if (buffer instanceof BufferInternal bufferInternal) {
+				// getByteBuf() returns a slice with a fixed capacity, the buffer that it wraps is the one that grows
+				var byteBuf = bufferInternal.getByteBuf().unwrap();
+				if (byteBuf != null) {
+					byteBuf.ensureWritable(sizeEstimator.estimate());
+				}
+			}
 		}
 
 		@Override
@@ -41,4 +180,26 @@ public record DataCodec<T>(MessageCodec<T, T> codec) {
 			return -1;
 		}
 	}
+
+	/**
+	 * Appends the written bytes to a {@link Buffer}
+	 */
+	private static final class BufferOutputStream extends OutputStream {
+
+		private final Buffer buffer;
+
+		private BufferOutputStream(Buffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(int b) {
+			buffer.appendByte((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			buffer.appendBytes(b, off, len);
+		}
+	}
 }
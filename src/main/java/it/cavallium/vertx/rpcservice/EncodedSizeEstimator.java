@@ -0,0 +1,31 @@
+package it.cavallium.vertx.rpcservice;
+
+/**
+ * Moving average of the encoded sizes of a service method's messages, used to pre-size wire buffers.
+ * Updates are not synchronized: a lost update only makes the estimate slightly less accurate.
+ */
+final class EncodedSizeEstimator {
+
+	private static final int MIN_ESTIMATE = 64;
+	private static final int MAX_ESTIMATE = 4 * 1024 * 1024;
+	/**
+	 * Weight of each new sample is 1/2^SMOOTHING_SHIFT
+	 */
+	private static final int SMOOTHING_SHIFT = 3;
+
+	private volatile int average = MIN_ESTIMATE;
+
+	/**
+	 * @return the expected encoded size, with some headroom over the average
+	 */
+	int estimate() {
+		int average = this.average;
+		return Math.min(MAX_ESTIMATE, average + (average >> 2));
+	}
+
+	void record(int encodedSize) {
+		int average = this.average;
+		int clampedSize = Math.max(MIN_ESTIMATE, Math.min(MAX_ESTIMATE, encodedSize));
+		this.average = average + ((clampedSize - average) >> SMOOTHING_SHIFT);
+	}
+}
@@ -0,0 +1,209 @@
+package it.cavallium.vertx.rpcservice;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleEmitter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Subscription;
+
+/**
+ * Cursor over a flowable, each page requests exactly the elements that it needs.
+ * Pages requested while another one is being fetched are queued, and fetched in order.
+ */
+final class FlowableRemoteCursor<T> implements RemoteCursor<T>, FlowableSubscriber<T> {
+
+	private static final int MAX_INITIAL_PAGE_CAPACITY = 1024;
+
+	private final Flowable<T> source;
+	private final ArrayDeque<PendingPage<T>> pendingPages = new ArrayDeque<>();
+
+	private boolean subscribed;
+	private Subscription subscription;
+	private long deferredRequested;
+	private SingleEmitter<List<T>> pageEmitter;
+	private ArrayList<T> page;
+	private int pageRemaining;
+	private boolean done;
+	private Throwable error;
+
+	/**
+	 * Page requested while another one was being fetched
+	 */
+	private record PendingPage<T>(SingleEmitter<List<T>> emitter, int count) {}
+
+	FlowableRemoteCursor(Flowable<T> source) {
+		this.source = source;
+	}
+
+	@Override
+	public Single<List<T>> next(int count) {
+		if (count <= 0) {
+			return Single.error(new IllegalArgumentException("Page size must be positive, got " + count));
+		}
+		return Single.create(emitter -> {
+			synchronized (this) {
+				pendingPages.add(new PendingPage<>(emitter, count));
+			}
+			startPendingPages();
+		});
+	}
+
+	/**
+	 * Start the queued pages in order, one at a time
+	 */
+	private void startPendingPages() {
+		while (true) {
+			PendingPage<T> pendingPage;
+			boolean subscribe = false;
+			Subscription subscription = null;
+			Throwable error;
+			boolean done;
+			synchronized (this) {
+				if (pageEmitter != null) {
+					return;
+				}
+				pendingPage = pendingPages.poll();
+				if (pendingPage == null) {
+					return;
+				} else if (pendingPage.emitter.isDisposed()) {
+					continue;
+				}
+				error = this.error;
+				done = this.done;
+				if (!done) {
+					this.pageEmitter = pendingPage.emitter;
+					this.page = new ArrayList<>(Math.min(pendingPage.count, MAX_INITIAL_PAGE_CAPACITY));
+					this.pageRemaining = pendingPage.count;
+					subscribe = !subscribed;
+					this.subscribed = true;
+					subscription = this.subscription;
+					if (subscription == null) {
+						deferredRequested += pendingPage.count;
+					}
+				}
+			}
+			if (error != null) {
+				pendingPage.emitter.onError(error);
+			} else if (done) {
+				pendingPage.emitter.onSuccess(List.of());
+			}
+			if (subscribe) {
+				source.subscribe(this);
+			}
+			if (subscription != null) {
+				subscription.request(pendingPage.count);
+			}
+		}
+	}
+
+	@Override
+	public void onSubscribe(@NotNull Subscription s) {
+		long requested;
+		synchronized (this) {
+			if (done) {
+				s.cancel();
+				return;
+			}
+			this.subscription = s;
+			requested = deferredRequested;
+			this.deferredRequested = 0;
+		}
+		if (requested > 0) {
+			s.request(requested);
+		}
+	}
+
+	@Override
+	public void onNext(T t) {
+		SingleEmitter<List<T>> emitter;
+		List<T> page;
+		synchronized (this) {
+			if (pageEmitter == null) {
+				return;
+			}
+			this.page.add(t);
+			if (--pageRemaining > 0) {
+				return;
+			}
+			emitter = pageEmitter;
+			page = this.page;
+			this.pageEmitter = null;
+			this.page = null;
+		}
+		emitter.onSuccess(page);
+		startPendingPages();
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		SingleEmitter<List<T>> emitter;
+		synchronized (this) {
+			this.done = true;
+			this.error = t;
+			emitter = pageEmitter;
+			this.pageEmitter = null;
+			this.page = null;
+		}
+		if (emitter != null) {
+			emitter.onError(t);
+		}
+		startPendingPages();
+	}
+
+	@Override
+	public void onComplete() {
+		SingleEmitter<List<T>> emitter;
+		List<T> page;
+		synchronized (this) {
+			this.done = true;
+			emitter = pageEmitter;
+			page = this.page;
+			this.pageEmitter = null;
+			this.page = null;
+		}
+		if (emitter != null) {
+			emitter.onSuccess(page);
+		}
+		startPendingPages();
+	}
+
+	@Override
+	public Completable rxClose() {
+		return Completable.fromAction(() -> {
+			Subscription subscription;
+			SingleEmitter<List<T>> emitter;
+			List<PendingPage<T>> pendingPages;
+			Throwable pendingPagesError;
+			synchronized (this) {
+				// Pages queued after the source has completed are answered as if the cursor was still open
+				pendingPagesError = done ? error : new CancellationException("Cursor closed");
+				this.done = true;
+				subscription = this.subscription;
+				emitter = pageEmitter;
+				this.pageEmitter = null;
+				this.page = null;
+				pendingPages = List.copyOf(this.pendingPages);
+				this.pendingPages.clear();
+			}
+			if (subscription != null) {
+				subscription.cancel();
+			}
+			if (emitter != null) {
+				emitter.onError(new CancellationException("Cursor closed"));
+			}
+			for (PendingPage<T> pendingPage : pendingPages) {
+				if (pendingPagesError != null) {
+					pendingPage.emitter.onError(pendingPagesError);
+				} else {
+					pendingPage.emitter.onSuccess(List.of());
+				}
+			}
+		});
+	}
+}
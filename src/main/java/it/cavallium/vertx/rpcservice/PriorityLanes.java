@@ -0,0 +1,87 @@
+package it.cavallium.vertx.rpcservice;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Scheduling of the requests of a {@link ServiceServer}.
+ * <p>
+ * Each {@link ServicePriority} has its own queue. When the server is running {@code maxConcurrency} requests, queued
+ * requests are started by weighted round-robin between the lanes, so that bulk requests can't starve the others.
+ * Weights only matter once the server-wide limit is reached: below it, every request within its lane limit starts
+ * immediately.
+ *
+ * @param maxConcurrency maximum number of requests running on the server, in all the lanes
+ * @param lanes          options of each lane
+ */
+public record PriorityLanes(int maxConcurrency, Map<ServicePriority, Lane> lanes) {
+
+	/**
+	 * @param weight         share of the free slots given to the lane when other lanes are waiting too
+	 * @param maxConcurrency maximum number of requests of the lane running at the same time
+	 * @param maxQueued      maximum number of requests waiting in the lane, further requests that can't start
+	 *                       immediately are rejected
+	 */
+	public record Lane(int weight, int maxConcurrency, int maxQueued) {
+
+		public Lane {
+			if (weight <= 0) {
+				throw new IllegalArgumentException("Weight must be positive, got " + weight);
+			}
+			if (maxConcurrency <= 0) {
+				throw new IllegalArgumentException("Max concurrency must be positive, got " + maxConcurrency);
+			}
+			if (maxQueued < 0) {
+				throw new IllegalArgumentException("Max queued must not be negative, got " + maxQueued);
+			}
+		}
+	}
+
+	public PriorityLanes {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Max concurrency must be positive, got " + maxConcurrency);
+		}
+		for (ServicePriority priority : ServicePriority.values()) {
+			if (!lanes.containsKey(priority)) {
+				throw new IllegalArgumentException("Missing options of the " + priority + " lane");
+			}
+		}
+		lanes = Map.copyOf(lanes);
+	}
+
+	/**
+	 * Default maximum number of requests running on a server
+	 */
+	public static final int DEFAULT_MAX_CONCURRENCY = 1024;
+
+	/**
+	 * At most {@link #DEFAULT_MAX_CONCURRENCY} requests running on the server, of which at most 32 of the
+	 * {@link ServicePriority#LOW} lane, and unbounded queues
+	 */
+	public static PriorityLanes defaults() {
+		var lanes = new EnumMap<ServicePriority, Lane>(ServicePriority.class);
+		lanes.put(ServicePriority.HIGH, new Lane(8, Integer.MAX_VALUE, Integer.MAX_VALUE));
+		lanes.put(ServicePriority.NORMAL, new Lane(4, Integer.MAX_VALUE, Integer.MAX_VALUE));
+		lanes.put(ServicePriority.LOW, new Lane(1, 32, Integer.MAX_VALUE));
+		return new PriorityLanes(DEFAULT_MAX_CONCURRENCY, lanes);
+	}
+
+	/**
+	 * Snapshot of the state of a lane
+	 *
+	 * @param queued              requests waiting in the lane
+	 * @param active              requests of the lane that are running
+	 * @param dispatched          requests started since the server was created
+	 * @param rejected            requests rejected because the lane was full
+	 * @param expired             requests dropped from the queue because their caller's timeout had passed
+	 * @param maxQueueLength      highest number of requests that waited in the lane at the same time
+	 * @param totalQueueWaitNanos total time spent in the queue by the dispatched requests
+	 */
+	public record LaneMetrics(int queued, int active, long dispatched, long rejected, long expired,
+			long maxQueueLength, long totalQueueWaitNanos) {
+
+		public double averageQueueWaitNanos() {
+			return dispatched == 0 ? 0 : (double) totalQueueWaitNanos / dispatched;
+		}
+	}
+}
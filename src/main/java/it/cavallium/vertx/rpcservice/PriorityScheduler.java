@@ -0,0 +1,235 @@
+package it.cavallium.vertx.rpcservice;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import it.cavallium.vertx.rpcservice.PriorityLanes.LaneMetrics;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Queues the requests of a server in priority lanes, and starts them with smooth weighted round-robin
+ */
+final class PriorityScheduler {
+
+	private final int maxConcurrency;
+	private final Lane[] lanes;
+	private final AtomicInteger drainWip = new AtomicInteger();
+	private int active;
+
+	private static final class Lane {
+
+		private final PriorityLanes.Lane options;
+		private final ArrayDeque<QueuedTask> queue = new ArrayDeque<>();
+		private int active;
+		private int currentWeight;
+		private long dispatched;
+		private long rejected;
+		private long expired;
+		private long maxQueueLength;
+		private long totalQueueWaitNanos;
+
+		private Lane(PriorityLanes.Lane options) {
+			this.options = options;
+		}
+
+		private boolean isReady() {
+			return !queue.isEmpty() && active < options.maxConcurrency();
+		}
+	}
+
+	/**
+	 * @param task          receives the callback to call when the request ends
+	 * @param context       context where the task runs, null to run it on any thread
+	 * @param deadlineNanos {@link System#nanoTime()} after which the task is dropped instead of started
+	 * @param onExpired     called instead of the task if it's dropped
+	 */
+	private record QueuedTask(Consumer<Runnable> task, @Nullable Context context, long enqueuedNanos,
+			long deadlineNanos, Runnable onExpired) {
+
+		private boolean isExpired(long nowNanos) {
+			return nowNanos - deadlineNanos >= 0;
+		}
+	}
+
+	PriorityScheduler(PriorityLanes options) {
+		this.maxConcurrency = options.maxConcurrency();
+		var priorities = ServicePriority.values();
+		this.lanes = new Lane[priorities.length];
+		for (ServicePriority priority : priorities) {
+			lanes[priority.ordinal()] = new Lane(options.lanes().get(priority));
+		}
+	}
+
+	/**
+	 * Start a request, or queue it if its lane or the server are running too many requests.
+	 * The task will run on the current Vert.x context
+	 *
+	 * @param deadlineNanos {@link System#nanoTime()} after which the request is dropped if it's still queued, because its
+	 *                      caller stopped waiting for the reply
+	 * @param onExpired     called on the current Vert.x context if the request is dropped
+	 * @return false if the request had to wait and its lane is full, so it was rejected
+	 */
+	boolean submit(ServicePriority priority, long deadlineNanos, Consumer<Runnable> task, Runnable onExpired) {
+		var lane = lanes[priority.ordinal()];
+		var now = System.nanoTime();
+		var queuedTask = new QueuedTask(task, Vertx.currentContext(), now, deadlineNanos, onExpired);
+		boolean startNow;
+		boolean rejected = false;
+		List<QueuedTask> expiredTasks = List.of();
+		synchronized (this) {
+			// Requests that can start immediately don't count towards maxQueued
+			startNow = lane.queue.isEmpty() && lane.active < lane.options.maxConcurrency() && active < maxConcurrency;
+			if (startNow) {
+				lane.active++;
+				lane.dispatched++;
+				active++;
+			} else {
+				if (lane.queue.size() >= lane.options.maxQueued()) {
+					expiredTasks = removeExpired(lane, now);
+				}
+				if (lane.queue.size() >= lane.options.maxQueued()) {
+					lane.rejected++;
+					rejected = true;
+				} else {
+					lane.queue.add(queuedTask);
+					lane.maxQueueLength = Math.max(lane.maxQueueLength, lane.queue.size());
+				}
+			}
+		}
+		expiredTasks.forEach(PriorityScheduler::expire);
+		if (rejected) {
+			return false;
+		} else if (startNow) {
+			run(lane, queuedTask);
+		} else {
+			drain();
+		}
+		return true;
+	}
+
+	private void drain() {
+		if (drainWip.getAndIncrement() != 0) {
+			return;
+		}
+		do {
+			while (true) {
+				Lane lane;
+				QueuedTask queuedTask = null;
+				var expiredTasks = new ArrayList<QueuedTask>();
+				synchronized (this) {
+					var now = System.nanoTime();
+					for (Lane candidate : lanes) {
+						while (!candidate.queue.isEmpty() && candidate.queue.peek().isExpired(now)) {
+							candidate.expired++;
+							expiredTasks.add(candidate.queue.poll());
+						}
+					}
+					lane = pickLane();
+					if (lane != null) {
+						queuedTask = lane.queue.poll();
+						lane.active++;
+						lane.dispatched++;
+						lane.totalQueueWaitNanos += now - queuedTask.enqueuedNanos;
+						active++;
+					}
+				}
+				expiredTasks.forEach(PriorityScheduler::expire);
+				if (lane == null) {
+					break;
+				}
+				run(lane, queuedTask);
+			}
+		} while (drainWip.decrementAndGet() != 0);
+	}
+
+	/**
+	 * Drop the queued requests of a lane whose deadline has passed
+	 */
+	private List<QueuedTask> removeExpired(Lane lane, long nowNanos) {
+		var expiredTasks = new ArrayList<QueuedTask>();
+		lane.queue.removeIf(queuedTask -> {
+			if (queuedTask.isExpired(nowNanos)) {
+				expiredTasks.add(queuedTask);
+				return true;
+			}
+			return false;
+		});
+		lane.expired += expiredTasks.size();
+		return expiredTasks;
+	}
+
+	private static void expire(QueuedTask queuedTask) {
+		var context = queuedTask.context;
+		if (context == null || Vertx.currentContext() == context) {
+			queuedTask.onExpired.run();
+		} else {
+			context.runOnContext(v -> queuedTask.onExpired.run());
+		}
+	}
+
+	private void run(Lane lane, QueuedTask queuedTask) {
+		var ended = new AtomicBoolean();
+		Runnable onEnd = () -> {
+			if (ended.compareAndSet(false, true)) {
+				synchronized (this) {
+					lane.active--;
+					active--;
+				}
+				drain();
+			}
+		};
+		var context = queuedTask.context;
+		if (context == null || Vertx.currentContext() == context) {
+			queuedTask.task.accept(onEnd);
+		} else {
+			context.runOnContext(v -> queuedTask.task.accept(onEnd));
+		}
+	}
+
+	/**
+	 * Smooth weighted round-robin between the lanes that can start a request
+	 */
+	private @Nullable Lane pickLane() {
+		if (active >= maxConcurrency) {
+			return null;
+		}
+		Lane best = null;
+		int totalWeight = 0;
+		for (Lane lane : lanes) {
+			if (lane.isReady()) {
+				lane.currentWeight += lane.options.weight();
+				totalWeight += lane.options.weight();
+				if (best == null || lane.currentWeight > best.currentWeight) {
+					best = lane;
+				}
+			}
+		}
+		if (best != null) {
+			best.currentWeight -= totalWeight;
+		}
+		return best;
+	}
+
+	synchronized Map<ServicePriority, LaneMetrics> getMetrics() {
+		var metrics = new EnumMap<ServicePriority, LaneMetrics>(ServicePriority.class);
+		for (ServicePriority priority : ServicePriority.values()) {
+			var lane = lanes[priority.ordinal()];
+			metrics.put(priority, new LaneMetrics(lane.queue.size(),
+				lane.active,
+				lane.dispatched,
+				lane.rejected,
+				lane.expired,
+				lane.maxQueueLength,
+				lane.totalQueueWaitNanos
+			));
+		}
+		return metrics;
+	}
+}
@@ -0,0 +1,37 @@
+package it.cavallium.vertx.rpcservice;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import java.util.List;
+
+/**
+ * Lazily paged result of a service method.
+ * <p>
+ * A service method can return {@code Single<RemoteCursor<T>>} or {@code Maybe<RemoteCursor<T>>}: the server keeps the
+ * cursor open and sends only a handle to the client, then the client fetches the pages that it actually reads.
+ * Open cursors are closed by the server after {@link ServiceMethod#cursorTimeout()} seconds of inactivity.
+ */
+public interface RemoteCursor<T> extends RxCloseable {
+
+	/**
+	 * Fetch the next page, pages requested before the previous one is delivered are fetched in order
+	 *
+	 * @param count maximum number of elements to fetch
+	 * @return up to {@code count} elements, fewer only when the cursor is exhausted
+	 */
+	Single<List<T>> next(int count);
+
+	/**
+	 * Create a cursor that subscribes to the flowable on the first page, requesting only the elements that are fetched
+	 */
+	static <T> RemoteCursor<T> fromFlowable(Flowable<T> flowable) {
+		return new FlowableRemoteCursor<>(flowable);
+	}
+
+	/**
+	 * Create a cursor that iterates lazily over the iterable
+	 */
+	static <T> RemoteCursor<T> fromIterable(Iterable<T> iterable) {
+		return new FlowableRemoteCursor<>(Flowable.fromIterable(iterable));
+	}
+}
@@ -0,0 +1,78 @@
+package it.cavallium.vertx.rpcservice;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.rxjava3.core.Vertx;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client-side view of a cursor kept open by a {@link ServiceServer}
+ */
+final class RemoteCursorClient<T> implements RemoteCursor<T> {
+
+	private final Vertx vertx;
+	private final DeliveryOptions deliveryOptions;
+	private final Type elementType;
+	private final String address;
+	private final String id;
+	private volatile boolean closed;
+
+	RemoteCursorClient(Vertx vertx, DeliveryOptions deliveryOptions, Type elementType, JsonObject handle) {
+		this.vertx = vertx;
+		this.deliveryOptions = deliveryOptions;
+		this.elementType = elementType;
+		this.address = handle.getString(RemoteCursorRegistry.HANDLE_ADDRESS);
+		this.id = handle.getString(RemoteCursorRegistry.HANDLE_ID);
+	}
+
+	@Override
+	public Single<List<T>> next(int count) {
+		if (count <= 0) {
+			return Single.error(new IllegalArgumentException("Page size must be positive, got " + count));
+		}
+		return Single.defer(() -> {
+			if (closed) {
+				return Single.just(List.of());
+			}
+			var request = new ServiceMethodRequest(new Object[]{id, count});
+			return vertx.eventBus()
+				.<ServiceMethodReturnValue<?>>request(address + RemoteCursorRegistry.NEXT_OPERATION, request, deliveryOptions)
+				.map(msg -> {
+					var page = toPage(msg.body().value());
+					if (page.size() < count) {
+						// The server closes exhausted cursors by itself
+						closed = true;
+					}
+					return page;
+				});
+		});
+	}
+
+	private List<T> toPage(Object value) {
+		Iterable<?> elements = value instanceof JsonArray jsonArray ? jsonArray : (List<?>) value;
+		var page = new ArrayList<T>();
+		for (Object element : elements) {
+			page.add(ServiceUtils.castToType(false, elementType, element));
+		}
+		return page;
+	}
+
+	@Override
+	public Completable rxClose() {
+		return Completable.defer(() -> {
+			if (closed) {
+				return Completable.complete();
+			}
+			closed = true;
+			var request = new ServiceMethodRequest(new Object[]{id});
+			return vertx.eventBus()
+				.request(address + RemoteCursorRegistry.CLOSE_OPERATION, request, deliveryOptions)
+				.ignoreElement();
+		});
+	}
+}
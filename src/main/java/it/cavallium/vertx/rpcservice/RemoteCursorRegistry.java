@@ -0,0 +1,197 @@
+package it.cavallium.vertx.rpcservice;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.vertx.core.eventbus.MessageConsumerOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.rxjava3.core.eventbus.Message;
+import io.vertx.rxjava3.core.eventbus.MessageConsumer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side registry of the open cursors of a service, bounded in size and evicting idle cursors
+ */
+final class RemoteCursorRegistry {
+
+	static final String HANDLE_ADDRESS = "address";
+	static final String HANDLE_ID = "id";
+	static final String NEXT_OPERATION = "next";
+	static final String CLOSE_OPERATION = "close";
+
+	private static final ServiceMethodReturnValue<?> EMPTY_RESULT = new ServiceMethodReturnValue<>(null);
+
+	private final Vertx vertx;
+	private final String addressPrefix;
+	private final int maxOpenCursors;
+	private final PriorityScheduler scheduler;
+	private final Map<String, OpenCursor> cursors = new ConcurrentHashMap<>();
+
+	private static final class OpenCursor {
+
+		private final RemoteCursor<?> cursor;
+		private final long timeoutNanos;
+		private final long idleTimeoutMillis;
+		private final ServicePriority priority;
+		private long timerId = -1;
+		private int pagesInFlight;
+
+		private OpenCursor(RemoteCursor<?> cursor, long timeoutNanos, long idleTimeoutMillis, ServicePriority priority) {
+			this.cursor = cursor;
+			this.timeoutNanos = timeoutNanos;
+			this.idleTimeoutMillis = idleTimeoutMillis;
+			this.priority = priority;
+		}
+	}
+
+	/**
+	 * @param scheduler scheduler of the server, pages and closing run in the lane of the call that opened the cursor
+	 */
+	RemoteCursorRegistry(Vertx vertx, Class<?> serviceClass, int maxOpenCursors, PriorityScheduler scheduler) {
+		this.vertx = vertx;
+		this.addressPrefix = ServiceUtils.getCursorEventBusAddressPrefix(serviceClass, UUID.randomUUID().toString());
+		this.maxOpenCursors = maxOpenCursors;
+		this.scheduler = scheduler;
+	}
+
+	List<MessageConsumer<ServiceMethodRequest>> registerConsumers(boolean localOnly) {
+		return List.of(
+			vertx.eventBus().consumer(new MessageConsumerOptions()
+				.setAddress(addressPrefix + NEXT_OPERATION)
+				.setLocalOnly(localOnly), this::handleNext),
+			vertx.eventBus().consumer(new MessageConsumerOptions()
+				.setAddress(addressPrefix + CLOSE_OPERATION)
+				.setLocalOnly(localOnly), this::handleClose)
+		);
+	}
+
+	/**
+	 * Keep the cursor open until it's exhausted, closed by the client, or idle for too long
+	 *
+	 * @param timeoutNanos timeout of the calls to the cursor, the same of the call that opened it
+	 * @param priority     priority of the call that opened the cursor
+	 * @return the handle to send to the client
+	 * @throws IllegalStateException if too many cursors are open
+	 */
+	synchronized JsonObject register(RemoteCursor<?> cursor, long timeoutNanos, long idleTimeoutMillis,
+		ServicePriority priority) {
+		if (cursors.size() >= maxOpenCursors) {
+			throw new IllegalStateException("Too many open cursors, the limit is " + maxOpenCursors);
+		}
+		var id = UUID.randomUUID().toString();
+		var openCursor = new OpenCursor(cursor, timeoutNanos, idleTimeoutMillis, priority);
+		cursors.put(id, openCursor);
+		startIdleTimer(id, openCursor);
+		return new JsonObject().put(HANDLE_ADDRESS, addressPrefix).put(HANDLE_ID, id);
+	}
+
+	private void handleNext(Message<ServiceMethodRequest> msg) {
+		var args = msg.body().arguments();
+		var id = (String) args[0];
+		var count = ((Number) args[1]).intValue();
+		var openCursor = cursors.get(id);
+		if (openCursor == null) {
+			// The cursor has already been exhausted or closed
+			msg.reply(new ServiceMethodReturnValue<>(List.of()));
+			return;
+		}
+		pauseIdleTimer(openCursor);
+		var deadlineNanos = System.nanoTime() + openCursor.timeoutNanos;
+		var submitted = scheduler.submit(openCursor.priority, deadlineNanos, onEnd -> openCursor.cursor.next(count)
+			.timeout(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+			.doFinally(() -> {
+				resumeIdleTimer(id, openCursor);
+				onEnd.run();
+			})
+			.subscribe(page -> {
+				if (page.size() < count) {
+					remove(id).subscribe(() -> {}, err -> {});
+				}
+				msg.reply(new ServiceMethodReturnValue<>(page));
+			}, err -> {
+				remove(id).subscribe(() -> {}, err2 -> {});
+				msg.fail(500, err.toString());
+			}), () -> {
+			resumeIdleTimer(id, openCursor);
+			msg.fail(503, "The request timed out in the " + openCursor.priority + " priority lane");
+		});
+		if (!submitted) {
+			resumeIdleTimer(id, openCursor);
+			msg.fail(503, "The " + openCursor.priority + " priority lane is full");
+		}
+	}
+
+	private void handleClose(Message<ServiceMethodRequest> msg) {
+		var id = (String) msg.body().arguments()[0];
+		var openCursor = cursors.get(id);
+		if (openCursor == null) {
+			msg.reply(EMPTY_RESULT);
+			return;
+		}
+		var deadlineNanos = System.nanoTime() + openCursor.timeoutNanos;
+		var submitted = scheduler.submit(openCursor.priority, deadlineNanos, onEnd -> remove(id)
+			.timeout(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+			.doFinally(onEnd::run)
+			.subscribe(() -> msg.reply(EMPTY_RESULT), err -> msg.fail(500, err.toString())),
+			() -> msg.fail(503, "The request timed out in the " + openCursor.priority + " priority lane"));
+		if (!submitted) {
+			msg.fail(503, "The " + openCursor.priority + " priority lane is full");
+		}
+	}
+
+	private void startIdleTimer(String id, OpenCursor openCursor) {
+		synchronized (openCursor) {
+			openCursor.timerId = vertx.setTimer(openCursor.idleTimeoutMillis,
+				timerId -> remove(id).subscribe(() -> {}, err -> {}));
+		}
+	}
+
+	/**
+	 * A cursor is not idle while it's fetching a page, even if the page takes longer than the idle timeout
+	 */
+	private void pauseIdleTimer(OpenCursor openCursor) {
+		synchronized (openCursor) {
+			openCursor.pagesInFlight++;
+			if (openCursor.timerId != -1) {
+				vertx.cancelTimer(openCursor.timerId);
+				openCursor.timerId = -1;
+			}
+		}
+	}
+
+	/**
+	 * Restart the idle timeout once the last page in flight is delivered
+	 */
+	private void resumeIdleTimer(String id, OpenCursor openCursor) {
+		synchronized (openCursor) {
+			if (--openCursor.pagesInFlight == 0 && cursors.get(id) == openCursor) {
+				startIdleTimer(id, openCursor);
+			}
+		}
+	}
+
+	private Completable remove(String id) {
+		return Completable.defer(() -> {
+			var openCursor = cursors.remove(id);
+			if (openCursor == null) {
+				return Completable.complete();
+			}
+			synchronized (openCursor) {
+				if (openCursor.timerId != -1) {
+					vertx.cancelTimer(openCursor.timerId);
+					openCursor.timerId = -1;
+				}
+			}
+			return openCursor.cursor.rxClose();
+		});
+	}
+
+	Completable closeAll() {
+		return Flowable.fromIterable(List.copyOf(cursors.keySet()))
+			.flatMapCompletable(this::remove);
+	}
+}
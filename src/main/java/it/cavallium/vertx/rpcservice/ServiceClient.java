@@ -5,6 +5,7 @@ import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
 import io.vertx.core.MultiMap;
 import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
 import io.vertx.rxjava3.core.Vertx;
 import it.cavallium.vertx.rpcservice.ServiceMethodRequest.ServiceMethodRequestMessageCodec;
 import it.cavallium.vertx.rpcservice.ServiceMethodReturnValue.ServiceMethodReturnValueMessageCodec;
@@ -14,18 +15,21 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ServiceClient<T> {
 
 	private final Vertx vertx;
 	private final boolean localOnly;
 	private final T instance;
+	private final Map<ServicePriority, T> priorityInstances;
 
 	enum ReturnArity {
 		COMPLETABLE,
@@ -33,7 +37,8 @@ public class ServiceClient<T> {
 		SINGLE
 	}
 
-	private record MethodData(String address, Type returnType, ReturnArity arity, int timeout) {}
+	private record MethodData(String address, Type returnType, ReturnArity arity, int timeout,
+			EncodedSizeEstimator requestSizeEstimator) {}
 
 	public ServiceClient(Vertx vertx, Class<T> serviceClass) {
 		this(vertx, serviceClass, false);
@@ -53,8 +58,15 @@ public class ServiceClient<T> {
 		Map<Method, MethodData> methodData = processMethods(serviceClass, serviceClass.getDeclaredMethods());
 		this.instance = (T) Proxy.newProxyInstance(this.getClass().getClassLoader(),
 			new Class[]{serviceClass},
-			new DynamicInvocationHandler(serviceClass, methodData)
+			new DynamicInvocationHandler(serviceClass, methodData, null)
 		);
+		this.priorityInstances = new EnumMap<>(ServicePriority.class);
+		for (ServicePriority priority : ServicePriority.values()) {
+			priorityInstances.put(priority, (T) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+				new Class[]{serviceClass},
+				new DynamicInvocationHandler(serviceClass, methodData, priority)
+			));
+		}
 	}
 
 	private Map<Method, MethodData> processMethods(Class<T> serviceClass, Method[] declaredMethods) {
@@ -67,7 +79,7 @@ public class ServiceClient<T> {
 				String address = ServiceUtils.getMethodEventBusAddress(serviceClass, method);
 				final ReturnArity arity = getReturnArity(serviceClass, method);
 				if (arity == ReturnArity.COMPLETABLE) {
-					return new MethodData(address, null, ReturnArity.COMPLETABLE, annotation.timeout());
+					return new MethodData(address, null, ReturnArity.COMPLETABLE, annotation.timeout(), new EncodedSizeEstimator());
 				} else {
 					Type returnType = method.getGenericReturnType();
 					if (returnType instanceof ParameterizedType parameterizedType) {
@@ -78,7 +90,7 @@ public class ServiceClient<T> {
 									+ "\", it should be Single<?> or Maybe<?> with a single type parameter");
 						}
 						var returnTypeInner = typeArguments[0];
-						return new MethodData(address, returnTypeInner, arity, annotation.timeout());
+						return new MethodData(address, returnTypeInner, arity, annotation.timeout(), new EncodedSizeEstimator());
 					} else {
 						throw new UnsupportedOperationException(
 							"Method return type is not valid for service \"" + serviceClass + "\", method \"" + method
@@ -113,14 +125,22 @@ public class ServiceClient<T> {
 		private final Object object;
 
 
-		public DynamicInvocationHandler(Class<T> serviceClass, Map<Method, MethodData> methodDataMap) {
+		public DynamicInvocationHandler(Class<T> serviceClass,
+				Map<Method, MethodData> methodDataMap,
+				@Nullable ServicePriority priority) {
 			this.serviceClass = serviceClass;
 			this.methodDataMap = methodDataMap;
 			this.methodDeliveryOptionsMap = methodDataMap.entrySet()
 					.stream()
-					.collect(Collectors.toMap(Map.Entry::getKey, e -> new DeliveryOptions()
-														.setLocalOnly(localOnly)
-                            .setSendTimeout(e.getValue().timeout() * 1000L)));
+					.collect(Collectors.toMap(Map.Entry::getKey, e -> {
+						var deliveryOptions = new DeliveryOptions()
+								.setLocalOnly(localOnly)
+								.setSendTimeout(e.getValue().timeout() * 1000L);
+						if (priority != null) {
+							deliveryOptions.addHeader(ServicePriority.HEADER, priority.name());
+						}
+						return deliveryOptions;
+					}));
 			this.object = new Object();
 		}
 
@@ -143,7 +163,7 @@ public class ServiceClient<T> {
 			var methodData = methodDataMap.get(method);
 			var deliveryOptions = methodDeliveryOptionsMap.get(method);
 			var address = methodData.address;
-			var request = new ServiceMethodRequest(args);
+			var request = new ServiceMethodRequest(args, methodData.requestSizeEstimator);
 			var requestSingle = Single.defer(() -> vertx.eventBus().<ServiceMethodReturnValue<?>>request(address, request, deliveryOptions));
 
 			Type returnType;
@@ -154,6 +174,19 @@ public class ServiceClient<T> {
 				returnType = null;
 			}
 
+			var cursorElementType = ServiceUtils.getRemoteCursorElementType(returnType);
+			if (cursorElementType != null) {
+				return switch (methodData.arity) {
+					case COMPLETABLE -> requestSingle.ignoreElement();
+					case MAYBE -> requestSingle.mapOptional(msg -> Optional.ofNullable((JsonObject) msg.body().value())
+						.map(handle -> new RemoteCursorClient<>(vertx, deliveryOptions, cursorElementType, handle)));
+					case SINGLE -> requestSingle.map(msg -> {
+						var handle = Objects.requireNonNull((JsonObject) msg.body().value());
+						return new RemoteCursorClient<>(vertx, deliveryOptions, cursorElementType, handle);
+					});
+				};
+			}
+
 			return switch (methodData.arity) {
 				case COMPLETABLE -> requestSingle.ignoreElement();
 				case MAYBE -> requestSingle.mapOptional(msg -> {
@@ -171,4 +204,12 @@ public class ServiceClient<T> {
 	public T getInstance() {
 		return instance;
 	}
+
+	/**
+	 * @return an instance whose calls run in the specified priority lane, instead of the one of their
+	 * {@link ServiceMethod#priority()}
+	 */
+	public T getInstance(ServicePriority priority) {
+		return priorityInstances.get(priority);
+	}
 }
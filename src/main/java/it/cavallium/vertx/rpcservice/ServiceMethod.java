@@ -12,4 +12,28 @@ public @interface ServiceMethod {
      * Timeout, in seconds
      */
     int timeout() default 30;
+
+    /**
+     * Idle timeout of the {@link RemoteCursor} returned by this method, in seconds
+     */
+    int cursorTimeout() default 60;
+
+    /**
+     * Priority lane of the requests, it can be overridden by each call with {@link ServiceClient#getInstance(ServicePriority)}
+     */
+    ServicePriority priority() default ServicePriority.NORMAL;
+
+    /**
+     * Concurrent requests with equal arguments share a single invocation of the implementation, and get the same reply.
+     * Arguments are equal when their JSON encoding, the same sent on the wire, is equal: objects are compared by their
+     * properties rather than with {@code equals}, and only if Jackson databind can encode them; maps are compared
+     * regardless of the order of their keys. Requests whose arguments can't be encoded are never shared
+     */
+    boolean singleFlight() default false;
+
+    /**
+     * When {@link #singleFlight()} is enabled, time in milliseconds during which a successful result is also given to
+     * new requests with equal arguments, after it completes
+     */
+    int singleFlightCacheMillis() default 0;
 }
@@ -4,8 +4,16 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
 import java.util.ArrayList;
 import it.cavallium.vertx.rpcservice.DataCodec.DataMessageCodec;
+import org.jetbrains.annotations.Nullable;
 
-record ServiceMethodRequest(Object[] arguments) {
+/**
+ * @param sizeEstimator encoded size estimator of the called method, it's not sent over the wire
+ */
+record ServiceMethodRequest(Object[] arguments, @Nullable EncodedSizeEstimator sizeEstimator) {
+
+	ServiceMethodRequest(Object[] arguments) {
+		this(arguments, null);
+	}
 
 	static class ServiceMethodRequestMessageCodec implements
 		MessageCodec<ServiceMethodRequest, ServiceMethodRequest> {
@@ -13,18 +21,24 @@ record ServiceMethodRequest(Object[] arguments) {
 		public static final ServiceMethodRequestMessageCodec INSTANCE
 			= new ServiceMethodRequestMessageCodec();
 		private final DataMessageCodec dataCodec;
+		private final EncodedSizeEstimator defaultSizeEstimator;
 
 		private ServiceMethodRequestMessageCodec() {
 			this.dataCodec = new DataMessageCodec();
+			this.defaultSizeEstimator = new EncodedSizeEstimator();
 		}
 
 		@Override
 		public void encodeToWire(Buffer buffer, ServiceMethodRequest request) {
 			if (request.arguments != null) {
+				var sizeEstimator = request.sizeEstimator != null ? request.sizeEstimator : defaultSizeEstimator;
+				int start = buffer.length();
+				DataMessageCodec.ensureWritable(buffer, sizeEstimator);
 				for (int i = 0; i < request.arguments.length; i++) {
 					var argument = request.arguments[i];
 					dataCodec.encodeToWire(buffer, argument);
 				}
+				sizeEstimator.record(buffer.length() - start);
 			}
 		}
 
@@ -5,9 +5,16 @@ import io.vertx.core.eventbus.MessageCodec;
 import it.cavallium.vertx.rpcservice.DataCodec.DataMessageCodec;
 
 import java.util.Base64;
+import org.jetbrains.annotations.Nullable;
 
-record ServiceMethodReturnValue<T>(T value) {
+/**
+ * @param sizeEstimator encoded size estimator of the called method, it's not sent over the wire
+ */
+record ServiceMethodReturnValue<T>(T value, @Nullable EncodedSizeEstimator sizeEstimator) {
 
+	ServiceMethodReturnValue(T value) {
+		this(value, null);
+	}
 
 	@SuppressWarnings("rawtypes")
 	static class ServiceMethodReturnValueMessageCodec implements
@@ -16,17 +23,24 @@ record ServiceMethodReturnValue<T>(T value) {
 		public static final ServiceMethodReturnValueMessageCodec INSTANCE
 			= new ServiceMethodReturnValueMessageCodec();
 		private final DataMessageCodec dataCodec;
+		private final EncodedSizeEstimator defaultSizeEstimator;
 
 		private ServiceMethodReturnValueMessageCodec() {
 			this.dataCodec = new DataMessageCodec();
+			this.defaultSizeEstimator = new EncodedSizeEstimator();
 		}
 
 		@Override
 		public void encodeToWire(Buffer buffer, ServiceMethodReturnValue request) {
+			var sizeEstimator = request.sizeEstimator != null ? request.sizeEstimator : defaultSizeEstimator;
+			int start = buffer.length();
+			DataMessageCodec.ensureWritable(buffer, sizeEstimator);
 			if (request.value != null && request.value.getClass() == byte[].class) {
 				dataCodec.encodeToWire(buffer, Base64.getEncoder().encodeToString((byte[]) request.value));
+			} else {
+				dataCodec.encodeToWire(buffer, request.value);
 			}
-			dataCodec.encodeToWire(buffer, request.value);
+			sizeEstimator.record(buffer.length() - start);
 		}
 
 		@Override
@@ -0,0 +1,24 @@
+package it.cavallium.vertx.rpcservice;
+
+/**
+ * Priority lane of a request, see {@link PriorityLanes}
+ */
+public enum ServicePriority {
+	/**
+	 * Control-plane calls, like health checks
+	 */
+	HIGH,
+	/**
+	 * Interactive calls
+	 */
+	NORMAL,
+	/**
+	 * Bulk and batch calls
+	 */
+	LOW;
+
+	/**
+	 * Event Bus header that overrides the priority of a single request
+	 */
+	public static final String HEADER = "rpc-priority";
+}
@@ -18,26 +18,66 @@ import io.vertx.rxjava3.core.eventbus.MessageConsumer;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import it.cavallium.vertx.rpcservice.ServiceMethodReturnValue.ServiceMethodReturnValueMessageCodec;
 import it.cavallium.vertx.rpcservice.ServiceMethodRequest.ServiceMethodRequestMessageCodec;
+import it.cavallium.vertx.rpcservice.PriorityLanes.LaneMetrics;
+import it.cavallium.vertx.rpcservice.ServiceClient.ReturnArity;
 
 public class ServiceServer<T> implements RxCloseable {
 
+	/**
+	 * Default maximum number of {@link RemoteCursor} kept open by a server
+	 */
+	public static final int DEFAULT_MAX_OPEN_CURSORS = 1024;
+
 	private final Class<? super T> serviceClass;
+	private final RemoteCursorRegistry cursorRegistry;
+	private final PriorityScheduler scheduler;
 	private final List<MessageConsumer<ServiceMethodRequest>> consumers;
 	private static final ServiceMethodReturnValue<?> EMPTY_RESULT = new ServiceMethodReturnValue<>(null);
 
+	/**
+	 * Invokes the implementation of a method once the request is started by the scheduler
+	 */
+	private interface RequestInvoker {
+
+		/**
+		 * @param deadlineNanos {@link System#nanoTime()} after which the caller stops waiting for the reply
+		 * @param onEnd         to call when the invocation ends
+		 */
+		void invoke(Message<ServiceMethodRequest> msg, long deadlineNanos, Runnable onEnd);
+	}
+
 	public ServiceServer(Vertx vertx, T service, Class<? super T> serviceClass) {
 		this(vertx, service, serviceClass, false);
 	}
 
 	public ServiceServer(Vertx vertx, T service, Class<? super T> serviceClass, boolean localOnly) {
+		this(vertx, service, serviceClass, localOnly, DEFAULT_MAX_OPEN_CURSORS);
+	}
+
+	public ServiceServer(Vertx vertx, T service, Class<? super T> serviceClass, boolean localOnly, int maxOpenCursors) {
+		this(vertx, service, serviceClass, localOnly, maxOpenCursors, PriorityLanes.defaults());
+	}
+
+	public ServiceServer(Vertx vertx,
+		T service,
+		Class<? super T> serviceClass,
+		boolean localOnly,
+		int maxOpenCursors,
+		PriorityLanes priorityLanes) {
 		this.serviceClass = serviceClass;
 		ServiceUtils.tryRegisterDefaultCodec(vertx, ServiceMethodRequest.class, ServiceMethodRequestMessageCodec.INSTANCE);
 		ServiceUtils.tryRegisterDefaultCodec(vertx, ServiceMethodReturnValue.class, ServiceMethodReturnValueMessageCodec.INSTANCE);
@@ -46,23 +86,41 @@ public class ServiceServer<T> implements RxCloseable {
 			throw new UnsupportedOperationException("Only interfaces are allowed");
 		}
 
+		this.scheduler = new PriorityScheduler(priorityLanes);
+		this.cursorRegistry = new RemoteCursorRegistry(vertx, serviceClass, maxOpenCursors, scheduler);
+
 		record ServiceMethodDefinition(Method method, String address, Handler<Message<ServiceMethodRequest>> handler) {}
 
-		this.consumers = Arrays.stream(serviceClass.getDeclaredMethods())
+		var serviceMethods = Arrays.stream(serviceClass.getDeclaredMethods())
 			.filter(method -> method.isAnnotationPresent(ServiceMethod.class))
+			.toList();
+		var methodConsumers = serviceMethods.stream()
 			.map(method -> {
 				var address = getMethodEventBusAddress(serviceClass, method);
-				var handler = this.createRequestHandler(service, method);
+				var handler = this.createRequestHandler(vertx, service, method);
 				return new ServiceMethodDefinition(method, address, handler);
 			})
 			.map(definition -> {
 				var consumerOptions = new MessageConsumerOptions().setAddress(definition.address).setLocalOnly(localOnly);
 				return vertx.eventBus().consumer(consumerOptions, definition.handler);
-			})
-			.toList();
+			});
+		var returnsCursors = serviceMethods.stream()
+			.anyMatch(method -> ServiceUtils.getRemoteCursorElementType(getReturnValueType(method)) != null);
+		var cursorConsumers = returnsCursors
+			? cursorRegistry.registerConsumers(localOnly).stream()
+			: Stream.<MessageConsumer<ServiceMethodRequest>>empty();
+		this.consumers = Stream.concat(methodConsumers, cursorConsumers).toList();
+	}
+
+	private static @Nullable Type getReturnValueType(Method method) {
+		if (method.getGenericReturnType() instanceof ParameterizedType parameterizedType) {
+			return parameterizedType.getActualTypeArguments()[0];
+		} else {
+			return null;
+		}
 	}
 
-	private Handler<Message<ServiceMethodRequest>> createRequestHandler(T service, Method declaredMethod) {
+	private Handler<Message<ServiceMethodRequest>> createRequestHandler(Vertx vertx, T service, Method declaredMethod) {
 		var lookup = MethodHandles.publicLookup();
 		MethodHandle mh;
 		int paramsCount;
@@ -73,7 +131,23 @@ public class ServiceServer<T> implements RxCloseable {
 			throw new RuntimeException(e);
 		}
 		var arity = getReturnArity(serviceClass, declaredMethod);
-		return msg -> {
+		var replySizeEstimator = new EncodedSizeEstimator();
+		var returnsCursor = ServiceUtils.getRemoteCursorElementType(getReturnValueType(declaredMethod)) != null;
+		var annotation = declaredMethod.getAnnotation(ServiceMethod.class);
+		var timeoutNanos = TimeUnit.SECONDS.toNanos(annotation.timeout());
+		var cursorTimeoutMillis = annotation.cursorTimeout() * 1000L;
+		var defaultPriority = annotation.priority();
+		SingleFlightGroup singleFlightGroup;
+		if (annotation.singleFlight()) {
+			if (returnsCursor) {
+				throw new UnsupportedOperationException("Method \"" + declaredMethod
+					+ "\" returns a RemoteCursor, it can't be shared between requests with singleFlight");
+			}
+			singleFlightGroup = new SingleFlightGroup(vertx, annotation.singleFlightCacheMillis());
+		} else {
+			singleFlightGroup = null;
+		}
+		RequestInvoker invoker = (msg, deadlineNanos, onEnd) -> {
 			try {
 				var req = msg.body();
 
@@ -90,22 +164,96 @@ public class ServiceServer<T> implements RxCloseable {
 					}
 				}
 
+				var replyHandler = returnsCursor
+					? getCursorReplyHandler(msg, timeoutNanos, cursorTimeoutMillis, getRequestPriority(msg, defaultPriority))
+					: getReplyHandler(msg, replySizeEstimator);
+				// Stop the invocation once the caller stopped waiting for it, so that it frees its slot in the lane
+				var remainingNanos = deadlineNanos - System.nanoTime();
+				if (singleFlightGroup != null) {
+					var args = req.arguments();
+					singleFlightGroup.call(args, () -> invokeAsMaybe(mh, arity, args))
+						.timeout(remainingNanos, TimeUnit.NANOSECONDS)
+						.doFinally(onEnd::run)
+						.subscribe(replyHandler, getErrorHandler(msg), getEmptyReplyHandler(msg));
+					return;
+				}
 				switch (arity) {
 					case COMPLETABLE -> ((Completable) mh.invokeWithArguments(req.arguments()))
+						.timeout(remainingNanos, TimeUnit.NANOSECONDS)
+						.doFinally(onEnd::run)
 						.subscribe(getEmptyReplyHandler(msg), getErrorHandler(msg));
 					case MAYBE -> ((Maybe<?>) mh.invokeWithArguments(req.arguments()))
-						.subscribe(getReplyHandler(msg), getErrorHandler(msg), getEmptyReplyHandler(msg));
+						.timeout(remainingNanos, TimeUnit.NANOSECONDS)
+						.doFinally(onEnd::run)
+						.subscribe(replyHandler, getErrorHandler(msg), getEmptyReplyHandler(msg));
 					case SINGLE -> ((Single<?>) mh.invokeWithArguments(req.arguments()))
-						.subscribe(getReplyHandler(msg), getErrorHandler(msg));
+						.timeout(remainingNanos, TimeUnit.NANOSECONDS)
+						.doFinally(onEnd::run)
+						.subscribe(replyHandler, getErrorHandler(msg));
 				}
 			} catch (Throwable e) {
 				msg.fail(500, e.toString());
+				onEnd.run();
 			}
 		};
+		return msg -> {
+			var priority = getRequestPriority(msg, defaultPriority);
+			var deadlineNanos = System.nanoTime() + timeoutNanos;
+			if (!scheduler.submit(priority,
+				deadlineNanos,
+				onEnd -> invoker.invoke(msg, deadlineNanos, onEnd),
+				() -> msg.fail(503, "The request timed out in the " + priority + " priority lane")
+			)) {
+				msg.fail(503, "The " + priority + " priority lane is full");
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Maybe<Object> invokeAsMaybe(MethodHandle mh, ReturnArity arity, Object[] args) throws Throwable {
+		return switch (arity) {
+			case COMPLETABLE -> ((Completable) mh.invokeWithArguments(args)).toMaybe();
+			case MAYBE -> (Maybe<Object>) mh.invokeWithArguments(args);
+			case SINGLE -> ((Single<Object>) mh.invokeWithArguments(args)).toMaybe();
+		};
+	}
+
+	/**
+	 * @return the priority set by the {@link ServicePriority#HEADER} header, or the default one
+	 */
+	private static ServicePriority getRequestPriority(Message<ServiceMethodRequest> msg, ServicePriority defaultPriority) {
+		var header = msg.headers().get(ServicePriority.HEADER);
+		if (header != null) {
+			try {
+				return ServicePriority.valueOf(header);
+			} catch (IllegalArgumentException ignored) {
+				// fall back to the default priority
+			}
+		}
+		return defaultPriority;
 	}
 
-	private static @NotNull Consumer<Object> getReplyHandler(Message<ServiceMethodRequest> msg) {
-		return ok -> msg.reply(new ServiceMethodReturnValue<>(ok));
+	private static @NotNull Consumer<Object> getReplyHandler(Message<ServiceMethodRequest> msg,
+		EncodedSizeEstimator replySizeEstimator) {
+		return ok -> msg.reply(new ServiceMethodReturnValue<>(ok, replySizeEstimator));
+	}
+
+	private @NotNull Consumer<Object> getCursorReplyHandler(Message<ServiceMethodRequest> msg,
+		long timeoutNanos,
+		long cursorTimeoutMillis,
+		ServicePriority priority) {
+		return ok -> {
+			var cursor = (RemoteCursor<?>) ok;
+			JsonObject handle;
+			try {
+				handle = cursorRegistry.register(cursor, timeoutNanos, cursorTimeoutMillis, priority);
+			} catch (IllegalStateException ex) {
+				cursor.rxClose().subscribe(() -> {}, err -> {});
+				msg.fail(503, ex.getMessage());
+				return;
+			}
+			msg.reply(new ServiceMethodReturnValue<>(handle));
+		};
 	}
 
 	private static @NotNull Consumer<Throwable> getErrorHandler(Message<ServiceMethodRequest> msg) {
@@ -116,9 +264,17 @@ public class ServiceServer<T> implements RxCloseable {
 		return () -> msg.reply(EMPTY_RESULT);
 	}
 
+	/**
+	 * @return a snapshot of the state of each priority lane
+	 */
+	public Map<ServicePriority, LaneMetrics> getPriorityLaneMetrics() {
+		return scheduler.getMetrics();
+	}
+
 	@Override
 	public Completable rxClose() {
 		return Flowable.fromIterable(consumers)
-			.flatMapCompletable(MessageConsumer::unregister);
+			.flatMapCompletable(MessageConsumer::unregister)
+			.andThen(cursorRegistry.closeAll());
 	}
 }
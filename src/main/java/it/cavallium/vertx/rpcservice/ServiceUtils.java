@@ -28,6 +28,26 @@ class ServiceUtils {
 		return "t_service_" + serviceClass.getSimpleName() + "#";
 	}
 
+	/**
+	 * Cursors are kept by a single server instance, so their addresses are specific to it
+	 */
+	static String getCursorEventBusAddressPrefix(Class<?> serviceClass, String serverId) {
+		return "t_service_" + serviceClass.getSimpleName() + "@" + serverId + "#";
+	}
+
+	/**
+	 * @return the element type, if the type is a {@link RemoteCursor}, otherwise null
+	 */
+	static @Nullable Type getRemoteCursorElementType(@Nullable Type type) {
+		if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == RemoteCursor.class) {
+			return parameterizedType.getActualTypeArguments()[0];
+		} else if (type == RemoteCursor.class) {
+			return Object.class;
+		} else {
+			return null;
+		}
+	}
+
 	@SuppressWarnings("StatementWithEmptyBody")
 	public static <T> void tryRegisterDefaultCodec(Vertx vertx,
 		Class<T> serviceMethodRequestClass,
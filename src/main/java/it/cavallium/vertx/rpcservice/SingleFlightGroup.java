@@ -0,0 +1,102 @@
+package it.cavallium.vertx.rpcservice;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.functions.Supplier;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.EncodeException;
+import io.vertx.rxjava3.core.Vertx;
+import it.cavallium.vertx.rpcservice.DataCodec.DataMessageCodec;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shares a single invocation of a service method between the concurrent requests with equal arguments
+ */
+final class SingleFlightGroup {
+
+	private static final DataMessageCodec ARGUMENTS_CODEC = new DataMessageCodec();
+
+	private final Vertx vertx;
+	private final long cacheMillis;
+	private final Map<ArgumentsKey, Call> calls = new ConcurrentHashMap<>();
+
+	/**
+	 * Arguments encoded as on the wire with sorted map keys, so the key is not affected by later changes of the
+	 * arguments, nor by the order of their map entries
+	 */
+	private record ArgumentsKey(byte[] encoded) {
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ArgumentsKey other && Arrays.equals(encoded, other.encoded);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(encoded);
+		}
+	}
+
+	private final class Call {
+
+		private final Maybe<Object> result;
+
+		private Call(ArgumentsKey key, Supplier<Maybe<Object>> invocation) {
+			this.result = Maybe.defer(invocation)
+				.doOnEvent((value, error) -> onEnd(key, error))
+				.cache();
+		}
+
+		private void onEnd(ArgumentsKey key, Throwable error) {
+			if (error != null || cacheMillis <= 0) {
+				calls.remove(key, this);
+			} else {
+				vertx.setTimer(cacheMillis, timerId -> calls.remove(key, this));
+			}
+		}
+	}
+
+	/**
+	 * @param cacheMillis time during which a successful result is reused by new requests, after it completes
+	 */
+	SingleFlightGroup(Vertx vertx, long cacheMillis) {
+		this.vertx = vertx;
+		this.cacheMillis = cacheMillis;
+	}
+
+	/**
+	 * @param invocation invokes the service method, it's subscribed only if no equal call is in flight or cached
+	 */
+	Maybe<Object> call(Object[] arguments, Supplier<Maybe<Object>> invocation) {
+		var key = toKey(arguments != null ? arguments : new Object[0]);
+		if (key == null) {
+			return Maybe.defer(invocation);
+		}
+		var existing = calls.get(key);
+		if (existing == null) {
+			var newCall = new Call(key, invocation);
+			existing = calls.putIfAbsent(key, newCall);
+			if (existing == null) {
+				existing = newCall;
+			}
+		}
+		return existing.result;
+	}
+
+	/**
+	 * @return null if the arguments can't be encoded
+	 */
+	private static @Nullable ArgumentsKey toKey(Object[] arguments) {
+		var buffer = Buffer.buffer();
+		try {
+			for (Object argument : arguments) {
+				ARGUMENTS_CODEC.encodeCanonicalToWire(buffer, argument);
+			}
+		} catch (EncodeException e) {
+			return null;
+		}
+		return new ArgumentsKey(buffer.getBytes());
+	}
+}
@@ -1,7 +1,11 @@
 module vertx.rpc.services {
+	requires com.fasterxml.jackson.core;
+	requires static com.fasterxml.jackson.databind;
+	requires io.netty.buffer;
 	requires io.reactivex.rxjava3;
 	requires io.vertx.core;
 	requires org.jetbrains.annotations;
+	requires org.reactivestreams;
 	requires vertx.rx.java3;
 	exports it.cavallium.vertx.rpcservice;
 }
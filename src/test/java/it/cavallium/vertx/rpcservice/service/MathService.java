@@ -3,9 +3,12 @@ package it.cavallium.vertx.rpcservice.service;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
+import it.cavallium.vertx.rpcservice.RemoteCursor;
 import it.cavallium.vertx.rpcservice.ServiceClass;
 import it.cavallium.vertx.rpcservice.ServiceMethod;
+import it.cavallium.vertx.rpcservice.ServicePriority;
 import java.util.List;
+import java.util.Map;
 
 @ServiceClass
 public interface MathService {
@@ -40,6 +43,42 @@ public interface MathService {
 	@ServiceMethod
 	Single<ComputedBooleanOperation> calculateCustomRecordOr(BooleanOperation op);
 
+	@ServiceMethod
+	Single<String> calculateConcat(String a, String b, String c);
+
+	@ServiceMethod
+	Single<byte[]> calculateRepeatedBytes(int value, int count);
+
+	@ServiceMethod(priority = ServicePriority.LOW)
+	Single<RemoteCursor<Integer>> calculateRange(int start, int count);
+
+	@ServiceMethod(cursorTimeout = 1)
+	Single<RemoteCursor<Integer>> calculateSlowRange(int start, int count);
+
+	@ServiceMethod
+	Single<RemoteCursor<Integer>> calculateAsyncRange(int start, int count);
+
+	@ServiceMethod(singleFlight = true)
+	Single<Integer> calculateSlowInvocationCount(int input);
+
+	@ServiceMethod(singleFlight = true, singleFlightCacheMillis = 500)
+	Single<Integer> calculateCachedInvocationCount(int input);
+
+	@ServiceMethod(singleFlight = true, singleFlightCacheMillis = 500)
+	Single<Integer> calculateCachedSum(List<Integer> input);
+
+	@ServiceMethod(singleFlight = true, singleFlightCacheMillis = 500)
+	Single<Integer> calculateCachedMapInvocationCount(Map<String, Integer> input);
+
+	@ServiceMethod(singleFlight = true, singleFlightCacheMillis = 500)
+	Single<Integer> calculateFailingInvocationCount(int input);
+
+	@ServiceMethod(timeout = 2)
+	Completable calculateNever();
+
+	@ServiceMethod(timeout = 1)
+	Single<Integer> calculateQuickInvocationCount(int input);
+
 	record BooleanOperation(boolean a, Boolean b) {}
 
 	record ComputedBooleanOperation(BooleanOperation input, boolean result) {}
@@ -1,13 +1,29 @@
 package it.cavallium.vertx.rpcservice.service;
 
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
+import it.cavallium.vertx.rpcservice.RemoteCursor;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class MathServiceImpl implements MathService {
 
+	private final AtomicInteger slowInvocations = new AtomicInteger();
+	private final AtomicInteger cachedInvocations = new AtomicInteger();
+	private final AtomicInteger cachedMapInvocations = new AtomicInteger();
+	private final AtomicInteger failingInvocations = new AtomicInteger();
+	private final AtomicInteger quickInvocations = new AtomicInteger();
+	private final AtomicBoolean neverDisposed = new AtomicBoolean();
+
 	@Override
 	public Single<Boolean> calculateNot(boolean a) {
 		return Single.just(!a);
@@ -53,6 +69,77 @@ class MathServiceImpl implements MathService {
 		return Single.just(new ComputedBooleanOperation(op, op.a() | op.b()));
 	}
 
+	@Override
+	public Single<String> calculateConcat(String a, String b, String c) {
+		return Single.just(Stream.of(a, b, c).filter(Objects::nonNull).collect(Collectors.joining()));
+	}
+
+	@Override
+	public Single<byte[]> calculateRepeatedBytes(int value, int count) {
+		var result = new byte[count];
+		Arrays.fill(result, (byte) value);
+		return Single.just(result);
+	}
+
+	@Override
+	public Single<RemoteCursor<Integer>> calculateRange(int start, int count) {
+		return Single.just(RemoteCursor.fromFlowable(Flowable.range(start, count)));
+	}
+
+	@Override
+	public Single<RemoteCursor<Integer>> calculateSlowRange(int start, int count) {
+		return Single.just(RemoteCursor.fromFlowable(Flowable.range(start, count)
+			.concatMapSingle(i -> Single.just(i).delay(400, TimeUnit.MILLISECONDS))));
+	}
+
+	@Override
+	public Single<RemoteCursor<Integer>> calculateAsyncRange(int start, int count) {
+		return Single.just(RemoteCursor.fromFlowable(Flowable.range(start, count)
+			.concatMapSingle(i -> Single.just(i).delay(1, TimeUnit.MILLISECONDS))));
+	}
+
+	@Override
+	public Single<Integer> calculateSlowInvocationCount(int input) {
+		return Single.fromCallable(slowInvocations::incrementAndGet).delay(100, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public Single<Integer> calculateCachedInvocationCount(int input) {
+		return Single.fromCallable(cachedInvocations::incrementAndGet);
+	}
+
+	@Override
+	public Single<Integer> calculateCachedSum(List<Integer> input) {
+		return Single.just(input.stream().mapToInt(Integer::intValue).sum());
+	}
+
+	@Override
+	public Single<Integer> calculateCachedMapInvocationCount(Map<String, Integer> input) {
+		return Single.fromCallable(cachedMapInvocations::incrementAndGet);
+	}
+
+	@Override
+	public Single<Integer> calculateFailingInvocationCount(int input) {
+		return Single.error(() -> new IllegalStateException("Invocation " + failingInvocations.incrementAndGet()));
+	}
+
+	@Override
+	public Completable calculateNever() {
+		return Completable.never().doOnDispose(() -> neverDisposed.set(true));
+	}
+
+	@Override
+	public Single<Integer> calculateQuickInvocationCount(int input) {
+		return Single.fromCallable(quickInvocations::incrementAndGet);
+	}
+
+	/**
+	 * @return true if the server stopped waiting for {@link #calculateNever()}
+	 */
+	boolean isNeverDisposed() {
+		return neverDisposed.get();
+	}
+
 	@Override
 	public Maybe<Boolean> calculateMaybe(boolean shouldReturn) {
 		return shouldReturn ? Maybe.just(true) : Maybe.empty();
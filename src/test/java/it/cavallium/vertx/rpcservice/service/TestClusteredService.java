@@ -0,0 +1,118 @@
+package it.cavallium.vertx.rpcservice.service;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.spi.cluster.hazelcast.ConfigUtil;
+import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+import it.cavallium.vertx.rpcservice.ServiceClient;
+import it.cavallium.vertx.rpcservice.ServiceServer;
+import it.cavallium.vertx.rpcservice.service.MathService.BooleanOperation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Calls a server on another clustered node, so that every request and reply goes through the wire codecs
+ */
+public class TestClusteredService {
+
+	private static final String HOST = "127.0.0.1";
+
+	private static Vertx serverNode;
+	private static Vertx clientNode;
+
+	@BeforeAll
+	public static void startNodes() {
+		serverNode = startNode();
+		clientNode = startNode();
+	}
+
+	@AfterAll
+	public static void closeNodes() {
+		Flowable.fromArray(clientNode, serverNode).concatMapCompletable(Vertx::close).blockingAwait();
+	}
+
+	private static Vertx startNode() {
+		var config = ConfigUtil.loadConfig();
+		var join = config.getNetworkConfig().getJoin();
+		join.getMulticastConfig().setEnabled(false);
+		join.getTcpIpConfig().setEnabled(true).addMember(HOST);
+		config.getNetworkConfig().getInterfaces().setEnabled(true).addInterface(HOST);
+		return Vertx.builder()
+			.with(new VertxOptions().setEventBusOptions(new EventBusOptions().setHost(HOST)))
+			.withClusterManager(new HazelcastClusterManager(config))
+			.rxBuildClustered()
+			.blockingGet();
+	}
+
+	/**
+	 * Wait until the consumers registered by the server are visible from the client node
+	 */
+	private static void awaitRegistration(MathService clientInstance) {
+		clientInstance.calculateNot(false)
+			.retryWhen(errors -> errors.delay(100, TimeUnit.MILLISECONDS).take(100))
+			.blockingGet();
+	}
+
+	@Test
+	public void testWireCodecs() {
+		try (var server = new ServiceServer<>(serverNode, new MathServiceImpl(), MathService.class)) {
+			var clientInstance = new ServiceClient<>(clientNode, MathService.class).getInstance();
+			awaitRegistration(clientInstance);
+
+			Assertions.assertEquals("abc", clientInstance.calculateConcat("a", "b", "c").blockingGet());
+			Assertions.assertEquals("ac", clientInstance.calculateConcat("a", null, "c").blockingGet());
+			Assertions.assertEquals("", clientInstance.calculateConcat(null, null, null).blockingGet());
+			var large = "0123456789abcdef".repeat(384 * 1024);
+			Assertions.assertEquals(large + "-" + large,
+				clientInstance.calculateConcat(large, "-", large).blockingGet());
+			Assertions.assertArrayEquals(new byte[] {7, 7, 7}, clientInstance.calculateRepeatedBytes(7, 3).blockingGet());
+			Assertions.assertArrayEquals(new byte[0], clientInstance.calculateRepeatedBytes(7, 0).blockingGet());
+			Assertions.assertEquals(new ArrayList<>(List.of(false, true)),
+				new ArrayList<>(clientInstance.calculateMergeToList(false, true).blockingGet()));
+			Assertions.assertTrue(clientInstance.calculateListOr(List.of(false, true)).blockingGet());
+			Assertions.assertNull(clientInstance.calculateMaybe(false).blockingGet());
+			Assertions.assertDoesNotThrow(() -> clientInstance.calculateCompletable().blockingAwait());
+		}
+	}
+
+	/**
+	 * Records can only be encoded by Jackson databind
+	 */
+	@Test
+	@Tag("databind")
+	public void testWireRecords() {
+		try (var server = new ServiceServer<>(serverNode, new MathServiceImpl(), MathService.class)) {
+			var clientInstance = new ServiceClient<>(clientNode, MathService.class).getInstance();
+			awaitRegistration(clientInstance);
+
+			Assertions.assertTrue(clientInstance.calculateCustomRecordOr(new BooleanOperation(false, true)).blockingGet().result());
+		}
+	}
+
+	@Test
+	public void testCursor() {
+		try (var server = new ServiceServer<>(serverNode, new MathServiceImpl(), MathService.class)) {
+			var clientInstance = new ServiceClient<>(clientNode, MathService.class).getInstance();
+			awaitRegistration(clientInstance);
+
+			try (var cursor = clientInstance.calculateRange(10, 5).blockingGet()) {
+				Assertions.assertEquals(List.of(10, 11), cursor.next(2).blockingGet());
+				Assertions.assertEquals(List.of(List.of(12, 13), List.of(14)),
+					Single.zip(cursor.next(2), cursor.next(2), List::of).blockingGet());
+				Assertions.assertEquals(List.of(), cursor.next(2).blockingGet());
+			}
+			var abandonedCursor = clientInstance.calculateRange(0, 1000).blockingGet();
+			Assertions.assertEquals(List.of(0), abandonedCursor.next(1).blockingGet());
+			Assertions.assertDoesNotThrow(() -> abandonedCursor.rxClose().blockingAwait());
+		}
+	}
+}
@@ -1,11 +1,19 @@
 package it.cavallium.vertx.rpcservice.service;
 
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.eventbus.ReplyException;
 import io.vertx.rxjava3.core.Vertx;
+import it.cavallium.vertx.rpcservice.PriorityLanes;
+import it.cavallium.vertx.rpcservice.PriorityLanes.Lane;
 import it.cavallium.vertx.rpcservice.ServiceClient;
+import it.cavallium.vertx.rpcservice.ServicePriority;
 import it.cavallium.vertx.rpcservice.ServiceServer;
 import it.cavallium.vertx.rpcservice.service.MathService.BooleanOperation;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -38,6 +46,164 @@ public class TestService {
 			Assertions.assertTrue(clientInstance.calculateCustomRecordOr(new BooleanOperation(false, true)).blockingGet().result());
 			Assertions.assertNull(clientInstance.calculateMaybe(false).blockingGet());
 			Assertions.assertTrue(clientInstance.calculateMaybe(true).blockingGet(false));
+			try (var cursor = clientInstance.calculateRange(10, 5).blockingGet()) {
+				Assertions.assertEquals(List.of(10, 11), cursor.next(2).blockingGet());
+				Assertions.assertEquals(List.of(12, 13, 14), cursor.next(4).blockingGet());
+				Assertions.assertEquals(List.of(), cursor.next(4).blockingGet());
+			}
+			try (var cursor = clientInstance.calculateRange(0, 5).blockingGet()) {
+				Assertions.assertEquals(List.of(List.of(0, 1), List.of(2, 3), List.of(4)),
+					Single.zip(cursor.next(2), cursor.next(2), cursor.next(2), List::of).blockingGet());
+			}
+			try (var cursor = clientInstance.calculateAsyncRange(0, 3).blockingGet()) {
+				// The short page closes the cursor while the page queued behind it is waiting for the source
+				Assertions.assertEquals(List.of(List.of(0, 1), List.of(2), List.of()),
+					Single.zip(cursor.next(2), cursor.next(2), cursor.next(2), List::of).blockingGet());
+			}
+			try (var cursor = clientInstance.calculateSlowRange(0, 10).blockingGet()) {
+				// The page takes longer than the idle timeout of the cursor
+				Assertions.assertEquals(List.of(0, 1, 2, 3), cursor.next(4).blockingGet());
+				Assertions.assertEquals(List.of(4), cursor.next(1).blockingGet());
+			}
+			var abandonedCursor = clientInstance.calculateRange(0, 1000).blockingGet();
+			Assertions.assertEquals(List.of(0), abandonedCursor.next(1).blockingGet());
+			Assertions.assertDoesNotThrow(() -> abandonedCursor.rxClose().blockingAwait());
+			Assertions.assertTrue(client.getInstance(ServicePriority.HIGH).calculateNot(false).blockingGet());
+			var laneMetrics = server.getPriorityLaneMetrics();
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.HIGH).dispatched());
+			// 3 calls of calculateRange, 6 pages and 1 close of the cursors that it opened
+			Assertions.assertEquals(10, laneMetrics.get(ServicePriority.LOW).dispatched());
+			Assertions.assertEquals(0, laneMetrics.get(ServicePriority.NORMAL).active());
+			Assertions.assertEquals(List.of(1, 1, 2), Single.zip(clientInstance.calculateSlowInvocationCount(5),
+				clientInstance.calculateSlowInvocationCount(5),
+				clientInstance.calculateSlowInvocationCount(6),
+				List::of
+			).blockingGet());
+			Assertions.assertEquals(3, clientInstance.calculateSlowInvocationCount(5).blockingGet());
+		}
+	}
+
+	@Test
+	public void testSingleFlightCache() throws InterruptedException {
+		var v = Vertx.vertx();
+
+		try (var server = new ServiceServer<>(v, new MathServiceImpl(), MathService.class)) {
+			var clientInstance = new ServiceClient<>(v, MathService.class).getInstance();
+			Assertions.assertEquals(1, clientInstance.calculateCachedInvocationCount(5).blockingGet());
+			Assertions.assertEquals(1, clientInstance.calculateCachedInvocationCount(5).blockingGet());
+			Assertions.assertEquals(2, clientInstance.calculateCachedInvocationCount(6).blockingGet());
+			Thread.sleep(1000);
+			Assertions.assertEquals(3, clientInstance.calculateCachedInvocationCount(5).blockingGet());
+
+			// Arguments changed after a request don't match its cached result, even with the same hash code
+			var input = new ArrayList<>(List.of(1, 2));
+			Assertions.assertEquals(3, clientInstance.calculateCachedSum(input).blockingGet());
+			input.set(0, 2);
+			input.set(1, -29);
+			Assertions.assertEquals(List.of(1, 2).hashCode(), input.hashCode());
+			Assertions.assertEquals(-27, clientInstance.calculateCachedSum(input).blockingGet());
+			Assertions.assertEquals(3, clientInstance.calculateCachedSum(List.of(1, 2)).blockingGet());
+
+			// Maps with the same entries are equal arguments, regardless of the order of their keys
+			var ab = new LinkedHashMap<String, Integer>();
+			ab.put("a", 1);
+			ab.put("b", 2);
+			var ba = new LinkedHashMap<String, Integer>();
+			ba.put("b", 2);
+			ba.put("a", 1);
+			Assertions.assertEquals(1, clientInstance.calculateCachedMapInvocationCount(ab).blockingGet());
+			Assertions.assertEquals(1, clientInstance.calculateCachedMapInvocationCount(ba).blockingGet());
+			Assertions.assertEquals(2, clientInstance.calculateCachedMapInvocationCount(Map.of("a", 1)).blockingGet());
+
+			// Errors are not reused
+			var firstError = Assertions.assertThrows(ReplyException.class,
+				() -> clientInstance.calculateFailingInvocationCount(5).blockingGet());
+			Assertions.assertTrue(firstError.getMessage().endsWith("Invocation 1"), firstError.getMessage());
+			var secondError = Assertions.assertThrows(ReplyException.class,
+				() -> clientInstance.calculateFailingInvocationCount(5).blockingGet());
+			Assertions.assertTrue(secondError.getMessage().endsWith("Invocation 2"), secondError.getMessage());
+		} finally {
+			v.close().blockingAwait();
+		}
+	}
+
+	/**
+	 * @return the failure code of a failed request, as a negative number
+	 */
+	private static Single<Integer> orFailureCode(Single<Integer> request) {
+		return request.onErrorReturn(err -> -((ReplyException) err).failureCode());
+	}
+
+	@Test
+	public void testPriorityLanes() {
+		var v = Vertx.vertx();
+
+		var lanes = new PriorityLanes(2, Map.of(ServicePriority.HIGH, new Lane(8, 1, 1),
+			ServicePriority.NORMAL, new Lane(4, 1, 1),
+			ServicePriority.LOW, new Lane(1, 1, 0)
+		));
+		try (var server = new ServiceServer<>(v, new MathServiceImpl(), MathService.class, false, 16, lanes)) {
+			var client = new ServiceClient<>(v, MathService.class);
+			var high = client.getInstance(ServicePriority.HIGH);
+			var normal = client.getInstance(ServicePriority.NORMAL);
+			var low = client.getInstance(ServicePriority.LOW);
+			// Each call returns the number of invocations of the method when it started
+			var results = Single.zip(List.of(
+				// Starts immediately, even if the LOW lane can't queue requests
+				orFailureCode(low.calculateSlowInvocationCount(1)),
+				// The LOW lane is running its only request, and can't queue requests
+				orFailureCode(low.calculateSlowInvocationCount(2)),
+				orFailureCode(normal.calculateSlowInvocationCount(3)),
+				// The server is running its 2 requests, the NORMAL lane queues its only request
+				orFailureCode(normal.calculateSlowInvocationCount(4)),
+				orFailureCode(normal.calculateSlowInvocationCount(5)),
+				// Starts before the queued NORMAL request
+				orFailureCode(high.calculateSlowInvocationCount(6))
+			), values -> Arrays.asList(values)).blockingGet();
+			Assertions.assertEquals(List.of(1, -503, 2, 4, -503, 3), results);
+
+			var laneMetrics = server.getPriorityLaneMetrics();
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.LOW).dispatched());
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.LOW).rejected());
+			Assertions.assertEquals(0, laneMetrics.get(ServicePriority.LOW).maxQueueLength());
+			Assertions.assertEquals(2, laneMetrics.get(ServicePriority.NORMAL).dispatched());
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.NORMAL).rejected());
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.NORMAL).maxQueueLength());
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.HIGH).dispatched());
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.HIGH).maxQueueLength());
+		} finally {
+			v.close().blockingAwait();
+		}
+	}
+
+	@Test
+	public void testRequestTimeouts() {
+		var v = Vertx.vertx();
+
+		var lanes = new PriorityLanes(1, Map.of(ServicePriority.HIGH, new Lane(8, 1, 1),
+			ServicePriority.NORMAL, new Lane(4, 1, 1),
+			ServicePriority.LOW, new Lane(1, 1, 1)
+		));
+		var svcImpl = new MathServiceImpl();
+		try (var server = new ServiceServer<>(v, svcImpl, MathService.class, false, 16, lanes)) {
+			var clientInstance = new ServiceClient<>(v, MathService.class).getInstance();
+			// The first request takes the only slot of the server until its timeout, the second one waits in the queue
+			// until its caller stops waiting for it
+			var results = Single.zip(clientInstance.calculateNever().toSingleDefault(true).onErrorReturnItem(false),
+				clientInstance.calculateQuickInvocationCount(1).map(count -> true).onErrorReturnItem(false),
+				List::of
+			).blockingGet();
+			Assertions.assertEquals(List.of(false, false), results);
+			// The timed out request has freed its slot, and the expired request was never invoked
+			Assertions.assertEquals(1, clientInstance.calculateQuickInvocationCount(2).blockingGet());
+			Assertions.assertTrue(svcImpl.isNeverDisposed());
+
+			var laneMetrics = server.getPriorityLaneMetrics();
+			Assertions.assertEquals(0, laneMetrics.get(ServicePriority.NORMAL).active());
+			Assertions.assertEquals(1, laneMetrics.get(ServicePriority.NORMAL).expired());
+			Assertions.assertEquals(2, laneMetrics.get(ServicePriority.NORMAL).dispatched());
+		} finally {
+			v.close().blockingAwait();
 		}
 	}
 }
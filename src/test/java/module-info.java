@@ -2,6 +2,9 @@ module vertx.rpc.services.test {
 	requires vertx.rpc.services;
 	requires org.junit.jupiter.api;
 	requires vertx.rx.java3;
+	requires io.vertx.core;
+	requires io.vertx.clustermanager.hazelcast;
+	requires com.hazelcast.core;
 	requires io.reactivex.rxjava3;
 	exports it.cavallium.vertx.rpcservice.service;
 }
\ No newline at end of file